@@ -127,6 +127,12 @@ public interface Constants {
 		/** The ampersand character '&', '\u0026'. */
 		char AMPERSAND = '&';
 
+		/** The at sign character '@', '\u0040'. */
+		char AT = '@';
+
+		/** The backslash character '\\', '\u005c'. */
+		char BACKSLASH = '\\';
+
 		/** The carriage return character '\r', '\u000d'. */
 		char CARRIAGE_RETURN = '\r';
 
@@ -148,6 +154,9 @@ public interface Constants {
 		/** The exclamation mar character '!', '\u0021'. */
 		char EXCLAMATION_MARK = '!';
 
+		/** The first character which is not in the ASCII range, '\u0080'. */
+		char FIRST_NON_ASCII = '\u0080';
+
 		/** The full stop (period, dot) character '.', '\u002e'. */
 		char FULL_STOP = '.';
 
@@ -162,6 +171,9 @@ public interface Constants {
 		/** The opening parenthesis (round bracket) character '(', '\u0028'. */
 		char LEFT_PAREN = '(';
 
+		/** The opening square bracket character '[', '\u005b'. */
+		char LEFT_SQUARE = '[';
+
 		/** The minus character '-', '\u002d'. */
 		char MINUS = '-';
 
@@ -191,9 +203,15 @@ public interface Constants {
 		/** The closing parenthesis (round bracket) character ')', '\u0029'. */
 		char RIGHT_PAREN = ')';
 
+		/** The closing square bracket character ']', '\u005d'. */
+		char RIGHT_SQUARE = ']';
+
 		/** The semi-colon character ';', '\u003b'. */
 		char SEMI_COLON = ';';
 
+		/** The single quote character '\'', '\u0027'. */
+		char SINGLE_QUOTE = '\'';
+
 		/** The slash character '/', '\u002f'. */
 		char SLASH = '/';
 
@@ -343,6 +361,83 @@ public interface Constants {
 
 			/** The internal buffer size for the parser. */
 			int BUFFER_SIZE = 512;
+
+			/** The number of bytes the parser reads from its input at a
+				time.
+			*/
+			int INPUT_BUFFER_SIZE = 8192;
+
+			/** The most characters of text which the parser scans as one
+				token, so that long runs of text never have to be held in
+				its scan buffer all at once.
+			*/
+			int TEXT_TOKEN_LENGTH = 128;
+
+			/** The most bytes which the modified UTF-8 encoding of a string
+				constant may take up in a class file.
+			*/
+			int MAX_LITERAL_BYTES = 65535;
+
+			/** The first character which takes two bytes in the modified
+				UTF-8 encoding of a string constant. The null character also
+				takes two.
+			*/
+			int TWO_BYTE_UTF8 = 0x80;
+
+			/** The first character which takes three bytes in the modified
+				UTF-8 encoding of a string constant.
+			*/
+			int THREE_BYTE_UTF8 = 0x800;
+
+			/** The name of the constant which generated parsers use as the
+				id of undeclared elements and attributes.
+			*/
+			String UNDECLARED = "UNDECLARED";
+
+			/** The suffix of the names of the classes which generated
+				parsers use to give typed access to the attributes of an
+				element.
+			*/
+			String ATTRIBUTES = "Attributes";
+
+			/** The element names, as they would appear in the typed
+				callbacks of a generated handler, which would clash with
+				the methods of the SAX ContentHandler.
+			*/
+			String[] HANDLER_CALLBACKS = {
+				"Document",
+				"Element",
+				"PrefixMapping",
+			};
+
+			/** The attribute names, as they would appear in the getters of
+				the classes which give typed access to the attributes of an
+				element, which would clash with the getAttributes() method of
+				those classes or with the getClass() method of Object.
+			*/
+			String[] RESERVED_GETTERS = {
+				ATTRIBUTES,
+				"Class",
+			};
+
+			/** The attribute names, as they would appear in the getters of
+				the generated data binding element classes, which would clash
+				with the getters of XMLComponent or with the getClass() method
+				of Object.
+			*/
+			String[] BINDING_GETTERS = {
+				"ChildCount",
+				"Children",
+				"Class",
+				"Parent",
+			};
+
+			/** What is added to the name of an attribute which is in
+				{@link #RESERVED_GETTERS} or {@link #BINDING_GETTERS} to make
+				the name of its getter, so that an attribute called "class"
+				gets a getClassAttribute() method.
+			*/
+			String RESERVED_SUFFIX = "Attribute";
 		}
 
 		/** XSLT output module constants. */
@@ -233,7 +233,7 @@ implements	Comparable<XMLAttributeContentType>,
 
 		@return	{@link #type}.
 	*/
-	private Type getType() {
+	public Type getType() {
 		return type;
 	}
 
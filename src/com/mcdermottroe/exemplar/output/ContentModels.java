@@ -0,0 +1,550 @@
+// vim:filetype=java:ts=4
+/*
+	Copyright (c) 2007
+	Conor McDermottroe.  All rights reserved.
+
+	Redistribution and use in source and binary forms, with or without
+	modification, are permitted provided that the following conditions
+	are met:
+	1. Redistributions of source code must retain the above copyright
+	   notice, this list of conditions and the following disclaimer.
+	2. Redistributions in binary form must reproduce the above copyright
+	   notice, this list of conditions and the following disclaimer in the
+	   documentation and/or other materials provided with the distribution.
+	3. Neither the name of the author nor the names of any contributors to
+	   the software may be used to endorse or promote products derived from
+	   this software without specific prior written permission.
+
+	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+	"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+	LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+	A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+	HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+	SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+	TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+	OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+	OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+	NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.mcdermottroe.exemplar.output;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.mcdermottroe.exemplar.DBC;
+import com.mcdermottroe.exemplar.model.XMLAlternative;
+import com.mcdermottroe.exemplar.model.XMLElement;
+import com.mcdermottroe.exemplar.model.XMLElementContentModel;
+import com.mcdermottroe.exemplar.model.XMLElementContentType;
+import com.mcdermottroe.exemplar.model.XMLElementReference;
+import com.mcdermottroe.exemplar.model.XMLObject;
+import com.mcdermottroe.exemplar.model.XMLSequence;
+
+import static com.mcdermottroe.exemplar.Constants.INFINITY;
+
+/** Compiles element content models into deterministic finite automata so
+	that generated parsers can validate the children of an element with one
+	table lookup per child.
+
+	@author	Conor McDermottroe
+	@since	0.2
+*/
+public final class ContentModels {
+	/** Private constructor to prevent instantiation of this class. */
+	private ContentModels() {
+		DBC.UNREACHABLE_CODE();
+	}
+
+	/** Compile a content model into the transition table of a deterministic
+		finite automaton. The symbols of the automaton are the indices of the
+		element names in <code>elementNames</code>. Row <code>s</code> of the
+		table describes state <code>s</code>, with state 0 being the start
+		state. Entry <code>a</code> of a row is the state reached by reading
+		a child with id <code>a</code>, or -1 if that child is not allowed
+		there. The extra entry at the end of each row is 1 if the content may
+		end in that state and 0 if it may not.
+
+		@param	model			The content model to compile.
+		@param	elementNames	The names of the elements, in id order.
+		@return					The transition table of the automaton.
+	*/
+	public static int[][] compile(
+		XMLElementContentModel model,
+		List<String> elementNames
+	)
+	{
+		DBC.REQUIRE(model != null);
+		DBC.REQUIRE(elementNames != null);
+		assert model != null;
+		assert elementNames != null;
+
+		// Map the names used in element references to element ids
+		Map<String, BitSet> symbols = new HashMap<String, BitSet>();
+		for (int id = 0; id < elementNames.size(); id++) {
+			String name = XMLElement.getLocalName(elementNames.get(id));
+			BitSet ids = symbols.get(name);
+			if (ids == null) {
+				ids = new BitSet();
+				symbols.put(name, ids);
+			}
+			ids.set(id);
+		}
+
+		int width = elementNames.size() + 1;
+		switch (model.getContentType()) {
+			case EMPTY:
+				return new int[][] {singleState(width, false, null)};
+			case ANY:
+				return new int[][] {singleState(width, true, null)};
+			case MIXED:
+				// Any number of the listed elements in any order
+				BitSet allowed = new BitSet();
+				for (XMLObject<?> o : model.getContentSpec()) {
+					if (o instanceof XMLElementReference) {
+						BitSet ids = symbols.get(
+							((XMLElementReference)o).getName()
+						);
+						if (ids != null) {
+							allowed.or(ids);
+						}
+					}
+				}
+				return new int[][] {singleState(width, false, allowed)};
+			default:
+				return childrenAutomaton(
+					model.getContentSpec(),
+					symbols,
+					width
+				);
+		}
+	}
+
+	/** Work out which elements may appear as children of each element,
+		according to the content models of the elements. An element with no
+		declaration, or whose content model is ANY, may contain any element,
+		including ones which were never declared.
+
+		@param	elements		The declared elements, by name.
+		@param	elementNames	The names of the elements, in id order.
+		@return					The ids of the elements which may appear as
+								children of each element, indexed by id, or
+								null for the elements which may contain any
+								element.
+	*/
+	public static BitSet[] children(
+		Map<String, XMLElement> elements,
+		List<String> elementNames
+	)
+	{
+		DBC.REQUIRE(elements != null);
+		DBC.REQUIRE(elementNames != null);
+		assert elements != null;
+		assert elementNames != null;
+
+		BitSet[] children = new BitSet[elementNames.size()];
+		for (int id = 0; id < children.length; id++) {
+			XMLElement element = elements.get(elementNames.get(id));
+			if (element == null) {
+				continue;
+			}
+			XMLElementContentModel model = element.getContentModel();
+			if (model.getContentType() == XMLElementContentType.ANY) {
+				continue;
+			}
+			BitSet allowed = new BitSet();
+			for (int[] row : compile(model, elementNames)) {
+				for (int child = 0; child < row.length - 1; child++) {
+					if (row[child] >= 0) {
+						allowed.set(child);
+					}
+				}
+			}
+			children[id] = allowed;
+		}
+		return children;
+	}
+
+	/** Work out which elements may appear anywhere inside each element,
+		according to the content models of the elements. An element with
+		no declaration, or whose content model is ANY, may contain any
+		element, including ones which were never declared.
+
+		@param	elements		The declared elements, by name.
+		@param	elementNames	The names of the elements, in id order.
+		@return					The ids of the elements which may appear
+								inside each element, indexed by id, or null
+								for the elements which may contain any
+								element.
+	*/
+	public static BitSet[] descendants(
+		Map<String, XMLElement> elements,
+		List<String> elementNames
+	)
+	{
+		DBC.REQUIRE(elements != null);
+		DBC.REQUIRE(elementNames != null);
+		assert elements != null;
+		assert elementNames != null;
+
+		// Start from the children allowed by each content model
+		BitSet[] descendants = children(elements, elementNames);
+
+		// Add the descendants of the children until nothing changes
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int id = 0; id < descendants.length; id++) {
+				BitSet inside = descendants[id];
+				if (inside == null) {
+					continue;
+				}
+				for (
+					int child = inside.nextSetBit(0);
+					child >= 0;
+					child = inside.nextSetBit(child + 1)
+				)
+				{
+					BitSet grandchildren = descendants[child];
+					if (grandchildren == null) {
+						descendants[id] = null;
+						changed = true;
+						break;
+					}
+					int before = inside.cardinality();
+					inside.or(grandchildren);
+					if (inside.cardinality() != before) {
+						changed = true;
+					}
+				}
+			}
+		}
+		return descendants;
+	}
+
+	/** Make the only row of an automaton which stays in its start state
+		while reading any of the allowed children.
+
+		@param	width		The width of a row of the table.
+		@param	anyChild	Whether or not every child is allowed.
+		@param	allowed		The ids of the allowed children when
+							<code>anyChild</code> is false, or null if
+							no children are allowed.
+		@return				The row of the table.
+	*/
+	private static int[] singleState(
+		int width,
+		boolean anyChild,
+		BitSet allowed
+	)
+	{
+		int[] row = new int[width];
+		for (int id = 0; id < width - 1; id++) {
+			if (anyChild || (allowed != null && allowed.get(id))) {
+				row[id] = 0;
+			} else {
+				row[id] = -1;
+			}
+		}
+		row[width - 1] = 1;
+		return row;
+	}
+
+	/** Build the automaton for element content. The content model is first
+		turned into a position automaton, where each position is one of
+		the element references in the model, and then into a deterministic
+		automaton using the subset construction.
+
+		@param	spec	The content specification of the element.
+		@param	symbols	The ids of the elements, by the name used to refer
+						to them.
+		@param	width	The width of a row of the table.
+		@return			The transition table of the automaton.
+	*/
+	private static int[][] childrenAutomaton(
+		XMLObject<?> spec,
+		Map<String, BitSet> symbols,
+		int width
+	)
+	{
+		// Position 0 stands for the start of the content.
+		List<BitSet> labels = new ArrayList<BitSet>();
+		List<BitSet> follow = new ArrayList<BitSet>();
+		labels.add(new BitSet());
+		follow.add(new BitSet());
+		Fragment content = fragment(spec, symbols, labels, follow);
+		follow.get(0).or(content.getFirst());
+		BitSet accepting = (BitSet)content.getLast().clone();
+		if (content.isNullable()) {
+			accepting.set(0);
+		}
+
+		// The subset construction
+		List<BitSet> states = new ArrayList<BitSet>();
+		Map<BitSet, Integer> stateIds = new HashMap<BitSet, Integer>();
+		List<int[]> table = new ArrayList<int[]>();
+		LinkedList<Integer> unvisited = new LinkedList<Integer>();
+		BitSet start = new BitSet();
+		start.set(0);
+		states.add(start);
+		stateIds.put(start, 0);
+		unvisited.add(0);
+		while (!unvisited.isEmpty()) {
+			int state = unvisited.removeFirst();
+			BitSet positions = states.get(state);
+
+			// Everywhere that can be reached from this state
+			BitSet reachable = new BitSet();
+			for (
+				int p = positions.nextSetBit(0);
+				p >= 0;
+				p = positions.nextSetBit(p + 1)
+			)
+			{
+				reachable.or(follow.get(p));
+			}
+
+			int[] row = new int[width];
+			for (int id = 0; id < width - 1; id++) {
+				BitSet next = new BitSet();
+				for (
+					int q = reachable.nextSetBit(0);
+					q >= 0;
+					q = reachable.nextSetBit(q + 1)
+				)
+				{
+					if (labels.get(q).get(id)) {
+						next.set(q);
+					}
+				}
+				if (next.isEmpty()) {
+					row[id] = -1;
+					continue;
+				}
+				Integer nextState = stateIds.get(next);
+				if (nextState == null) {
+					nextState = states.size();
+					states.add(next);
+					stateIds.put(next, nextState);
+					unvisited.add(nextState);
+				}
+				row[id] = nextState;
+			}
+			if (positions.intersects(accepting)) {
+				row[width - 1] = 1;
+			}
+			while (table.size() <= state) {
+				table.add(null);
+			}
+			table.set(state, row);
+		}
+		return table.toArray(new int[table.size()][]);
+	}
+
+	/** Build the part of a position automaton which matches a piece of a
+		content model. A new position is created for every element reference
+		in the piece, so a piece which is repeated is built once for each
+		repetition.
+
+		@param	piece	The piece of the content model.
+		@param	symbols	The ids of the elements, by the name used to refer
+						to them.
+		@param	labels	The ids of the children which each position matches.
+		@param	follow	The positions which may follow each position.
+		@return			The description of the piece.
+	*/
+	private static Fragment fragment(
+		XMLObject<?> piece,
+		Map<String, BitSet> symbols,
+		List<BitSet> labels,
+		List<BitSet> follow
+	)
+	{
+		if (piece instanceof XMLElementReference) {
+			int position = labels.size();
+			BitSet ids = symbols.get(((XMLElementReference)piece).getName());
+			if (ids == null) {
+				ids = new BitSet();
+			}
+			labels.add(ids);
+			follow.add(new BitSet());
+			Fragment f = new Fragment(false);
+			f.getFirst().set(position);
+			f.getLast().set(position);
+			return f;
+		} else if (piece instanceof XMLAlternative) {
+			Fragment f = new Fragment(false);
+			for (XMLObject<?> o : (XMLAlternative)piece) {
+				Fragment choice = fragment(o, symbols, labels, follow);
+				if (choice.isNullable()) {
+					f.setNullable(true);
+				}
+				f.getFirst().or(choice.getFirst());
+				f.getLast().or(choice.getLast());
+			}
+			return f;
+		} else if (piece instanceof XMLSequence) {
+			XMLSequence sequence = (XMLSequence)piece;
+			int min = sequence.getMinOccurs();
+			int max = sequence.getMaxOccurs();
+			Fragment f = new Fragment(true);
+			for (int i = 0; i < min; i++) {
+				Fragment copy = sequence(sequence, symbols, labels, follow);
+				if (i == min - 1 && max == INFINITY) {
+					// The last required copy may repeat
+					loop(copy, follow);
+				}
+				f = concatenate(f, copy, follow);
+			}
+			if (max == INFINITY) {
+				if (min == 0) {
+					Fragment copy = sequence(sequence, symbols, labels, follow);
+					loop(copy, follow);
+					copy.setNullable(true);
+					f = concatenate(f, copy, follow);
+				}
+			} else {
+				for (int i = min; i < max; i++) {
+					Fragment copy = sequence(sequence, symbols, labels, follow);
+					copy.setNullable(true);
+					f = concatenate(f, copy, follow);
+				}
+			}
+			return f;
+		}
+
+		// Anything else, such as #PCDATA, matches no children
+		return new Fragment(true);
+	}
+
+	/** Build one occurrence of the contents of a sequence.
+
+		@param	sequence	The sequence.
+		@param	symbols		The ids of the elements, by the name used to
+							refer to them.
+		@param	labels		The ids of the children which each position
+							matches.
+		@param	follow		The positions which may follow each position.
+		@return				The description of the contents.
+	*/
+	private static Fragment sequence(
+		XMLSequence sequence,
+		Map<String, BitSet> symbols,
+		List<BitSet> labels,
+		List<BitSet> follow
+	)
+	{
+		Fragment f = new Fragment(true);
+		for (XMLObject<?> o : sequence) {
+			f = concatenate(f, fragment(o, symbols, labels, follow), follow);
+		}
+		return f;
+	}
+
+	/** Join two fragments so that the second follows the first.
+
+		@param	a		The first fragment.
+		@param	b		The second fragment.
+		@param	follow	The positions which may follow each position.
+		@return			The joined fragment.
+	*/
+	private static Fragment concatenate(
+		Fragment a,
+		Fragment b,
+		List<BitSet> follow
+	)
+	{
+		for (
+			int p = a.getLast().nextSetBit(0);
+			p >= 0;
+			p = a.getLast().nextSetBit(p + 1)
+		)
+		{
+			follow.get(p).or(b.getFirst());
+		}
+		Fragment f = new Fragment(a.isNullable() && b.isNullable());
+		f.getFirst().or(a.getFirst());
+		if (a.isNullable()) {
+			f.getFirst().or(b.getFirst());
+		}
+		f.getLast().or(b.getLast());
+		if (b.isNullable()) {
+			f.getLast().or(a.getLast());
+		}
+		return f;
+	}
+
+	/** Allow a fragment to repeat itself immediately.
+
+		@param	f		The fragment.
+		@param	follow	The positions which may follow each position.
+	*/
+	private static void loop(Fragment f, List<BitSet> follow) {
+		for (
+			int p = f.getLast().nextSetBit(0);
+			p >= 0;
+			p = f.getLast().nextSetBit(p + 1)
+		)
+		{
+			follow.get(p).or(f.getFirst());
+		}
+	}
+
+	/** A piece of a position automaton. */
+	private static class Fragment {
+		/** Whether or not the piece matches an empty list of children. */
+		private boolean nullable;
+		/** The positions which may start the piece. */
+		private final BitSet first;
+		/** The positions which may end the piece. */
+		private final BitSet last;
+
+		/** Make a fragment with no positions.
+
+			@param	matchesEmpty	Whether or not the fragment matches an
+									empty list of children.
+		*/
+		Fragment(boolean matchesEmpty) {
+			nullable = matchesEmpty;
+			first = new BitSet();
+			last = new BitSet();
+		}
+
+		/** Find out whether the piece matches an empty list of children.
+
+			@return	True if the piece matches an empty list of children.
+		*/
+		boolean isNullable() {
+			return nullable;
+		}
+
+		/** Set whether the piece matches an empty list of children.
+
+			@param	matchesEmpty	Whether or not the piece matches an
+									empty list of children.
+		*/
+		void setNullable(boolean matchesEmpty) {
+			nullable = matchesEmpty;
+		}
+
+		/** Accessor for the positions which may start the piece.
+
+			@return	The positions which may start the piece.
+		*/
+		BitSet getFirst() {
+			return first;
+		}
+
+		/** Accessor for the positions which may end the piece.
+
+			@return	The positions which may end the piece.
+		*/
+		BitSet getLast() {
+			return last;
+		}
+	}
+}
@@ -0,0 +1,566 @@
+// vim:filetype=java:ts=4
+/*
+	Copyright (c) 2007
+	Conor McDermottroe.  All rights reserved.
+
+	Redistribution and use in source and binary forms, with or without
+	modification, are permitted provided that the following conditions
+	are met:
+	1. Redistributions of source code must retain the above copyright
+	   notice, this list of conditions and the following disclaimer.
+	2. Redistributions in binary form must reproduce the above copyright
+	   notice, this list of conditions and the following disclaimer in the
+	   documentation and/or other materials provided with the distribution.
+	3. Neither the name of the author nor the names of any contributors to
+	   the software may be used to endorse or promote products derived from
+	   this software without specific prior written permission.
+
+	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+	"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+	LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+	A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+	HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+	SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+	TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+	OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+	OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+	NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.mcdermottroe.exemplar.output;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.mcdermottroe.exemplar.DBC;
+import com.mcdermottroe.exemplar.model.XMLAttribute;
+import com.mcdermottroe.exemplar.model.XMLAttributeContentType;
+import com.mcdermottroe.exemplar.model.XMLAttributeDefaultType;
+import com.mcdermottroe.exemplar.model.XMLAttributeList;
+import com.mcdermottroe.exemplar.model.XMLDocumentType;
+import com.mcdermottroe.exemplar.ui.Message;
+
+import static com.mcdermottroe.exemplar.Constants.Character.AT;
+import static com.mcdermottroe.exemplar.Constants.Character.COLON;
+import static com.mcdermottroe.exemplar.Constants.Character.DOUBLE_QUOTE;
+import static com.mcdermottroe.exemplar.Constants.Character.EQUALS;
+import static com.mcdermottroe.exemplar.Constants.Character.FULL_STOP;
+import static com.mcdermottroe.exemplar.Constants.Character.LEFT_SQUARE;
+import static com.mcdermottroe.exemplar.Constants.Character.MINUS;
+import static com.mcdermottroe.exemplar.Constants.Character.PIPE;
+import static com.mcdermottroe.exemplar.Constants.Character.RIGHT_SQUARE;
+import static com.mcdermottroe.exemplar.Constants.Character.SINGLE_QUOTE;
+import static com.mcdermottroe.exemplar.Constants.Character.SLASH;
+import static com.mcdermottroe.exemplar.Constants.Character.STAR;
+import static com.mcdermottroe.exemplar.Constants.Character.UNDERSCORE;
+
+/** Parses simple XPath queries and checks them against the content models
+	of a DTD so that generated parsers can match them while streaming through
+	a document. A query is a location path made of child (<code>/</code>) and
+	descendant (<code>//</code>) steps, each of which tests the name of an
+	element, or matches any element with <code>*</code>, and may be followed
+	by tests of the attributes of the element, such as <code>[@type]</code>
+	or <code>[@type='intro']</code>. Several queries may be given at once,
+	separated by <code>|</code>.
+
+	@author	Conor McDermottroe
+	@since	0.2
+*/
+public final class Queries {
+	/** Private constructor to prevent instantiation of this class. */
+	private Queries() {
+		DBC.UNREACHABLE_CODE();
+	}
+
+	/** Parse one or more queries.
+
+		@param	queries			The queries, separated by <code>|</code>.
+		@return					The steps of each of the queries, in the
+								order in which they were given.
+		@throws	ParseException	if the queries are malformed.
+	*/
+	public static List<List<Step>> parse(String queries)
+	throws ParseException
+	{
+		DBC.REQUIRE(queries != null);
+		assert queries != null;
+
+		List<List<Step>> parsed = new ArrayList<List<Step>>();
+		int i = skipWhitespace(queries, 0);
+		while (true) {
+			// A query is one or more steps, each starting with a slash
+			List<Step> query = new ArrayList<Step>();
+			while (i < queries.length() && queries.charAt(i) == SLASH) {
+				i++;
+				boolean descendant = false;
+				if (i < queries.length() && queries.charAt(i) == SLASH) {
+					descendant = true;
+					i++;
+				}
+				i = skipWhitespace(queries, i);
+
+				// The name test
+				String name = null;
+				if (i < queries.length() && queries.charAt(i) == STAR) {
+					i++;
+				} else {
+					int nameEnd = scanName(queries, i);
+					if (nameEnd == i) {
+						throw new ParseException(
+							Message.QUERY_SYNTAX_ERROR(queries),
+							i
+						);
+					}
+					name = queries.substring(i, nameEnd);
+					i = nameEnd;
+				}
+				i = skipWhitespace(queries, i);
+
+				// The attribute tests
+				List<String> predicates = new ArrayList<String>();
+				while	(
+							i < queries.length() &&
+							queries.charAt(i) == LEFT_SQUARE
+						)
+				{
+					i = skipWhitespace(queries, i + 1);
+					if (i >= queries.length() || queries.charAt(i) != AT) {
+						throw new ParseException(
+							Message.QUERY_SYNTAX_ERROR(queries),
+							i
+						);
+					}
+					i = skipWhitespace(queries, i + 1);
+					int nameEnd = scanName(queries, i);
+					if (nameEnd == i) {
+						throw new ParseException(
+							Message.QUERY_SYNTAX_ERROR(queries),
+							i
+						);
+					}
+					predicates.add(queries.substring(i, nameEnd));
+					i = skipWhitespace(queries, nameEnd);
+					String value = null;
+					if (i < queries.length() && queries.charAt(i) == EQUALS) {
+						i = skipWhitespace(queries, i + 1);
+						if	(
+								i >= queries.length() ||
+								(
+									queries.charAt(i) != DOUBLE_QUOTE &&
+									queries.charAt(i) != SINGLE_QUOTE
+								)
+							)
+						{
+							throw new ParseException(
+								Message.QUERY_SYNTAX_ERROR(queries),
+								i
+							);
+						}
+						char quote = queries.charAt(i);
+						int valueEnd = queries.indexOf(quote, i + 1);
+						if (valueEnd < 0) {
+							throw new ParseException(
+								Message.QUERY_SYNTAX_ERROR(queries),
+								i
+							);
+						}
+						value = queries.substring(i + 1, valueEnd);
+						i = skipWhitespace(queries, valueEnd + 1);
+					}
+					predicates.add(value);
+					if	(
+							i >= queries.length() ||
+							queries.charAt(i) != RIGHT_SQUARE
+						)
+					{
+						throw new ParseException(
+							Message.QUERY_SYNTAX_ERROR(queries),
+							i
+						);
+					}
+					i = skipWhitespace(queries, i + 1);
+				}
+				query.add(new Step(descendant, name, predicates));
+			}
+			if (query.isEmpty()) {
+				throw new ParseException(
+					Message.QUERY_SYNTAX_ERROR(queries),
+					i
+				);
+			}
+			parsed.add(query);
+
+			// Either the end or another query
+			if (i == queries.length()) {
+				return parsed;
+			}
+			if (queries.charAt(i) != PIPE) {
+				throw new ParseException(
+					Message.QUERY_SYNTAX_ERROR(queries),
+					i
+				);
+			}
+			i = skipWhitespace(queries, i + 1);
+		}
+	}
+
+	/** Decide whether or not a query can match anything in a document which
+		is valid according to a DTD. Only the names and the attributes of the
+		elements are considered, so a query which is possible according to
+		this may still never match.
+
+		@param	query			The steps of the query.
+		@param	doctype			The DTD.
+		@param	elementNames	The names of the elements in the DTD, in id
+								order.
+		@return					False if the query cannot match anything,
+								true if it may.
+	*/
+	public static boolean isPossible(
+		List<Step> query,
+		XMLDocumentType doctype,
+		List<String> elementNames
+	)
+	{
+		DBC.REQUIRE(query != null);
+		DBC.REQUIRE(doctype != null);
+		DBC.REQUIRE(elementNames != null);
+		assert query != null;
+		assert doctype != null;
+		assert elementNames != null;
+
+		BitSet[] children = ContentModels.children(
+			doctype.elements(),
+			elementNames
+		);
+		BitSet[] descendants = ContentModels.descendants(
+			doctype.elements(),
+			elementNames
+		);
+
+		// Follow the query down from the root element, keeping track of
+		// the declared elements which may match each step and of whether
+		// an element which was never declared may match it too.
+		BitSet matched = null;
+		boolean undeclaredMatched = false;
+		for (Step step : query) {
+			// Work out the elements which may be found by the step
+			boolean anything = true;
+			BitSet found = new BitSet();
+			if (matched != null) {
+				anything = undeclaredMatched;
+				BitSet[] inside = children;
+				if (step.isDescendant()) {
+					inside = descendants;
+				}
+				for (
+					int id = matched.nextSetBit(0);
+					id >= 0;
+					id = matched.nextSetBit(id + 1)
+				)
+				{
+					if (inside[id] == null) {
+						anything = true;
+					} else {
+						found.or(inside[id]);
+					}
+				}
+			}
+
+			// Keep the ones which pass the tests of the step
+			matched = new BitSet();
+			for (int id = 0; id < elementNames.size(); id++) {
+				if	(
+						(anything || found.get(id)) &&
+						matches(step, id, doctype, elementNames)
+					)
+				{
+					matched.set(id);
+				}
+			}
+			undeclaredMatched = anything && (
+				step.getName() == null ||
+				!elementNames.contains(step.getName())
+			);
+			if (matched.isEmpty() && !undeclaredMatched) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Work out which elements may contain an element which matches a step,
+		as a child if it is a child step and anywhere inside them if it is a
+		descendant step. Elements which were not declared, or whose content
+		model is ANY, may contain any element.
+
+		@param	step			The step.
+		@param	doctype			The DTD.
+		@param	elementNames	The names of the elements in the DTD, in id
+								order.
+		@return					The ids of the elements which may contain an
+								element that matches the step.
+	*/
+	public static BitSet containers(
+		Step step,
+		XMLDocumentType doctype,
+		List<String> elementNames
+	)
+	{
+		DBC.REQUIRE(step != null);
+		DBC.REQUIRE(doctype != null);
+		DBC.REQUIRE(elementNames != null);
+		assert step != null;
+		assert doctype != null;
+		assert elementNames != null;
+
+		BitSet[] inside;
+		if (step.isDescendant()) {
+			inside = ContentModels.descendants(
+				doctype.elements(),
+				elementNames
+			);
+		} else {
+			inside = ContentModels.children(doctype.elements(), elementNames);
+		}
+		BitSet matching = new BitSet();
+		for (int id = 0; id < elementNames.size(); id++) {
+			if (matches(step, id, doctype, elementNames)) {
+				matching.set(id);
+			}
+		}
+		BitSet containers = new BitSet();
+		for (int id = 0; id < inside.length; id++) {
+			if (inside[id] == null || inside[id].intersects(matching)) {
+				containers.set(id);
+			}
+		}
+		return containers;
+	}
+
+	/** Decide whether a declared element may pass the name test and the
+		attribute tests of a step. An attribute test can only be passed by an
+		element for which that attribute was declared, and a test of its
+		value can only be passed if the declaration of the attribute allows
+		that value.
+
+		@param	step			The step.
+		@param	id				The id of the element.
+		@param	doctype			The DTD.
+		@param	elementNames	The names of the elements in the DTD, in id
+								order.
+		@return					True if the element may match the step.
+	*/
+	private static boolean matches(
+		Step step,
+		int id,
+		XMLDocumentType doctype,
+		List<String> elementNames
+	)
+	{
+		String elementName = elementNames.get(id);
+		if (step.getName() != null && !step.getName().equals(elementName)) {
+			return false;
+		}
+		List<String> predicates = step.getPredicates();
+		if (predicates.isEmpty()) {
+			return true;
+		}
+		Map<String, XMLAttributeList> attlists = doctype.attlists();
+		XMLAttributeList attlist = attlists.get(elementName);
+		if (attlist == null) {
+			return false;
+		}
+		for (int i = 0; i < predicates.size(); i += 2) {
+			XMLAttribute attribute = null;
+			for (XMLAttribute att : attlist) {
+				if (att.getName().equals(predicates.get(i))) {
+					attribute = att;
+					break;
+				}
+			}
+			if (attribute == null) {
+				return false;
+			}
+			String value = predicates.get(i + 1);
+			if (value == null) {
+				continue;
+			}
+
+			// Enumerated attributes may only take the listed values
+			XMLAttributeContentType type = attribute.getType();
+			if	(
+					(
+						type.getType().equals(
+							XMLAttributeContentType.Type.ENUMERATION
+						) ||
+						type.getType().equals(
+							XMLAttributeContentType.Type.NOTATION
+						)
+					) &&
+					!type.getValues().contains(value)
+				)
+			{
+				return false;
+			}
+
+			// #FIXED attributes may only take their fixed value
+			XMLAttributeDefaultType decl = attribute.getDefaultDeclType();
+			String fixed = decl.getValue();
+			if	(
+					fixed != null &&
+					decl.sameType(XMLAttributeDefaultType.FIXED(fixed)) &&
+					!value.equals(fixed)
+				)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Skip over any whitespace in a query.
+
+		@param	query	The query.
+		@param	start	The index to start skipping from.
+		@return			The index of the first character at or after
+						<code>start</code> which is not whitespace.
+	*/
+	private static int skipWhitespace(String query, int start) {
+		int i = start;
+		while (i < query.length() && Character.isWhitespace(query.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/** Find the end of a name in a query.
+
+		@param	query	The query.
+		@param	start	The index of the start of the name.
+		@return			The index of the first character at or after
+						<code>start</code> which may not be part of a name.
+	*/
+	private static int scanName(String query, int start) {
+		int i = start;
+		while (i < query.length()) {
+			char c = query.charAt(i);
+			if	(
+					!Character.isLetterOrDigit(c) &&
+					c != COLON &&
+					c != FULL_STOP &&
+					c != MINUS &&
+					c != UNDERSCORE
+				)
+			{
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/** One step of a query. */
+	public static final class Step {
+		/** Whether the step finds descendants rather than children. */
+		private final boolean descendant;
+
+		/** The name of the elements which the step matches, or null if it
+			matches any element.
+		*/
+		private final String name;
+
+		/** The attribute tests of the step, as alternating attribute name
+			and value pairs, with a null value for a test which only checks
+			that the attribute is there.
+		*/
+		private final List<String> predicates;
+
+		/** Make a step.
+
+			@param	isDescendant	Whether the step finds descendants rather
+									than children.
+			@param	elementName		The name of the elements which the step
+									matches, or null if it matches any
+									element.
+			@param	attributeTests	The attribute tests of the step, see
+									{@link #getPredicates()}.
+		*/
+		private Step(
+			boolean isDescendant,
+			String elementName,
+			List<String> attributeTests
+		)
+		{
+			descendant = isDescendant;
+			name = elementName;
+			predicates = Collections.unmodifiableList(attributeTests);
+		}
+
+		/** Accessor for {@link #descendant}.
+
+			@return	True if this is a descendant step.
+		*/
+		public boolean isDescendant() {
+			return descendant;
+		}
+
+		/** Accessor for {@link #name}.
+
+			@return	The name of the elements which this step matches, or
+					null if it matches any element.
+		*/
+		public String getName() {
+			return name;
+		}
+
+		/** Accessor for {@link #predicates}.
+
+			@return	The attribute tests of this step, as alternating
+					attribute name and value pairs, with a null value for a
+					test which only checks that the attribute is there.
+		*/
+		public List<String> getPredicates() {
+			return predicates;
+		}
+
+		/** Write the step out in the same form as it was parsed from.
+
+			@return	The step as a {@link String}.
+		*/
+		@Override public String toString() {
+			StringBuilder step = new StringBuilder();
+			step.append(SLASH);
+			if (descendant) {
+				step.append(SLASH);
+			}
+			if (name != null) {
+				step.append(name);
+			} else {
+				step.append(STAR);
+			}
+			for (int i = 0; i < predicates.size(); i += 2) {
+				step.append(LEFT_SQUARE);
+				step.append(AT);
+				step.append(predicates.get(i));
+				String value = predicates.get(i + 1);
+				if (value != null) {
+					char quote = SINGLE_QUOTE;
+					if (value.indexOf(SINGLE_QUOTE) >= 0) {
+						quote = DOUBLE_QUOTE;
+					}
+					step.append(EQUALS);
+					step.append(quote);
+					step.append(value);
+					step.append(quote);
+				}
+				step.append(RIGHT_SQUARE);
+			}
+			return step.toString();
+		}
+	}
+}
@@ -31,35 +31,67 @@ package com.mcdermottroe.exemplar.output.java;
 
 import java.io.File;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import com.mcdermottroe.exemplar.DBC;
+import com.mcdermottroe.exemplar.model.XMLAttribute;
+import com.mcdermottroe.exemplar.model.XMLAttributeContentType;
+import com.mcdermottroe.exemplar.model.XMLAttributeDefaultType;
+import com.mcdermottroe.exemplar.model.XMLAttributeList;
 import com.mcdermottroe.exemplar.model.XMLDocumentType;
+import com.mcdermottroe.exemplar.model.XMLElement;
+import com.mcdermottroe.exemplar.model.XMLElementContentModel;
+import com.mcdermottroe.exemplar.model.XMLElementContentType;
 import com.mcdermottroe.exemplar.model.XMLEntity;
 import com.mcdermottroe.exemplar.model.XMLEntityType;
 import com.mcdermottroe.exemplar.model.XMLExternalIdentifier;
+import com.mcdermottroe.exemplar.output.ContentModels;
 import com.mcdermottroe.exemplar.output.OutputException;
 import com.mcdermottroe.exemplar.output.OutputUtils;
+import com.mcdermottroe.exemplar.output.Queries;
 import com.mcdermottroe.exemplar.output.XMLParserGeneratorException;
 import com.mcdermottroe.exemplar.output.XMLParserSourceGenerator;
+import com.mcdermottroe.exemplar.ui.Log;
 import com.mcdermottroe.exemplar.ui.Message;
 import com.mcdermottroe.exemplar.ui.Options;
 import com.mcdermottroe.exemplar.utils.Strings;
 import com.mcdermottroe.exemplar.utils.XML;
 
+import static com.mcdermottroe.exemplar.Constants.Character.COMMA;
 import static com.mcdermottroe.exemplar.Constants.Character.EQUALS;
+import static com.mcdermottroe.exemplar.Constants.Character.NULL;
 import static com.mcdermottroe.exemplar.Constants.Character.SPACE;
+import static com.mcdermottroe.exemplar.Constants.Character.UNDERSCORE;
 import static com.mcdermottroe.exemplar.Constants.EOL;
 import static com.mcdermottroe.exemplar.Constants.Format.Code.Java.PACKAGE;
 import static com.mcdermottroe.exemplar.Constants.Format.Filenames.JAVA_PARSER;
 import static com.mcdermottroe.exemplar.Constants.Format.Filenames.JFLEX;
 import static com.mcdermottroe.exemplar.Constants.NULL_STRING;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.ATTRIBUTES;
 import static com.mcdermottroe.exemplar.Constants.Output.Java.BUFFER_SIZE;
 import static com.mcdermottroe.exemplar.Constants.Output.Java.ENTITIES_FILE;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.HANDLER_CALLBACKS;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.INPUT_BUFFER_SIZE;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.MAX_LITERAL_BYTES;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.RESERVED_GETTERS;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.RESERVED_SUFFIX;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.TEXT_TOKEN_LENGTH;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.THREE_BYTE_UTF8;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.TWO_BYTE_UTF8;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.UNDECLARED;
 import static com.mcdermottroe.exemplar.Constants.PROGRAM_NAME;
 
 /** A class which generates Java parsers that implement the SAX1 and SAX2
-	Parser interfaces, depending on the properties files that are loaded.
+	Parser interfaces or the StAX XMLStreamReader interface, depending on the
+	properties files that are loaded.
 
 	@author		Conor McDermottroe
 	@since		0.1
@@ -132,13 +164,8 @@ extends XMLParserSourceGenerator<T>
 		File entitiesFile = new File(sourceDirectory, ENTITIES_FILE);
 
 		// Generate the four files.
-		generateParserJavaFile(vocabulary, classFile);
-		generateParserJFlexFile(
-			vocabulary,
-			doctype.hasAttlists(),
-			doctype.entities(),
-			parseFile
-		);
+		generateParserJavaFile(vocabulary, doctype, classFile);
+		generateParserJFlexFile(vocabulary, doctype, parseFile);
 		generateEntitiesFile(doctype.entities(), entitiesFile);
 	}
 
@@ -146,17 +173,25 @@ extends XMLParserSourceGenerator<T>
 
 		@param	vocabulary					The name of the XML vocabulary that
 											the parser will parse.
+		@param	doctype						The {@link XMLDocumentType} to
+											generate the parser for.
 		@param	outputFile					The {@link File} to write out to
 		@throws	XMLParserGeneratorException	if the code fragments could not be
 											loaded or if the file could not be
 											written to.
 	*/
-	private void generateParserJavaFile(String vocabulary, File outputFile)
+	private void generateParserJavaFile(
+		String vocabulary,
+		XMLDocumentType doctype,
+		File outputFile
+	)
 	throws XMLParserGeneratorException
 	{
 		DBC.REQUIRE(vocabulary != null);
+		DBC.REQUIRE(doctype != null);
 		DBC.REQUIRE(outputFile != null);
 		assert vocabulary != null;
+		assert doctype != null;
 		assert outputFile != null;
 
 		// Get the template
@@ -171,13 +206,28 @@ extends XMLParserSourceGenerator<T>
 		}
 
 		// Make the contents of the output file
+		List<String> elementIds = elementIds(doctype);
+		String[] typedHandler = typedHandler(vocabulary, doctype, elementIds);
+		String[] queries = queries(doctype, elementIds);
 		String outputFileContents = Strings.formatMessage(
 			messageFormatTemplate,
 			PROGRAM_NAME,
 			timestamp,
 			vocabulary,
-			Integer.toString(BUFFER_SIZE),
-			packageStatement
+			Integer.toString(INPUT_BUFFER_SIZE),
+			packageStatement,
+			idConstants(doctype, elementIds),
+			typedHandler[0],
+			typedHandler[1],
+			typedHandler[2],
+			typedHandler[3],
+			typedHandler[4],
+			typedHandler[5],
+			descendantsTable(doctype, elementIds),
+			queries[0],
+			queries[1],
+			queries[2],
+			queries[3]
 		);
 
 		// Write out the file
@@ -197,11 +247,8 @@ extends XMLParserSourceGenerator<T>
 
 		@param	vocabulary					The name of the XML vocabulary that
 											the parser will parse.
-		@param	usesAttlists				Whether or not the {@link
-											XMLDocumentType} declares any
-											attribute lists.
-		@param	entities					The entities that are defined in the
-											{@link XMLDocumentType}.
+		@param	doctype						The {@link XMLDocumentType} to
+											generate the parser for.
 		@param	outputFile					The {@link File} to write out to.
 		@throws	XMLParserGeneratorException	if the code fragments could not be
 											loaded, if an unknown entity type is
@@ -210,15 +257,17 @@ extends XMLParserSourceGenerator<T>
 	*/
 	private void generateParserJFlexFile(
 		String vocabulary,
-		boolean usesAttlists,
-		Map<String, XMLEntity> entities,
+		XMLDocumentType doctype,
 		File outputFile
 	)
 	throws XMLParserGeneratorException
 	{
 		DBC.REQUIRE(vocabulary != null);
+		DBC.REQUIRE(doctype != null);
 		DBC.REQUIRE(outputFile != null);
 		DBC.REQUIRE(codeFragments != null);
+		assert doctype != null;
+		Map<String, XMLEntity> entities = doctype.entities();
 
 		// Get the template strings
 		String messageFormatTemplate = loadCodeFragment("JFLEX_MAIN_TEMPLATE");
@@ -238,14 +287,21 @@ extends XMLParserSourceGenerator<T>
 		}
 		String cdSectProcessor = "";
 		if (!Options.isSet("exclude", "CDSect")) {
-			cdSectProcessor = loadCodeFragment("CDSECT_PROCESSOR");
+			cdSectProcessor = Strings.formatMessage(
+				loadCodeFragment("CDSECT_PROCESSOR"),
+				Integer.toString(TEXT_TOKEN_LENGTH)
+			);
 		}
 		String predefinedEntities = "";
 		String externalEntityRules = "";
 		String intEntResolver = "";
 		if (!Options.isSet("exclude", "References")) {
 			predefinedEntities = loadCodeFragment("PREDEFINED_ENTITIES");
-			intEntResolver = loadCodeFragment("INTERNAL_ENT_RESOLVER");
+			if (Options.isSet("include", "compiled-entities")) {
+				intEntResolver = compiledEntityRules(entities);
+			} else {
+				intEntResolver = loadCodeFragment("INTERNAL_ENT_RESOLVER");
+			}
 			if (Options.isSet("include", "entities")) {
 				if (entities != null) {
 					StringBuilder extEntities = new StringBuilder();
@@ -296,17 +352,130 @@ extends XMLParserSourceGenerator<T>
 			charRefResolver = loadCodeFragment("CHAR_REF_RESOLVER");
 		}
 
+		// The symbol table of element names
+		List<String> elementIds = elementIds(doctype);
+		StringBuilder elementSymbols = new StringBuilder();
+		String elementNameFormat = loadCodeFragment("ELEMENT_NAME_FMT");
+		for (String elementName : elementIds) {
+			elementSymbols.append(
+				Strings.formatMessage(
+					elementNameFormat,
+					Strings.toJavaStringLiteral(elementName)
+				)
+			);
+		}
+
+		// The elements which have element content, where whitespace between
+		// the children is ignorable.
+		StringBuilder elementContent = new StringBuilder();
+		String elementContentFormat = loadCodeFragment("ELEMENT_CONTENT_FMT");
+		Map<String, XMLElement> elements = doctype.elements();
+		for (String elementName : elements.keySet()) {
+			XMLElement element = elements.get(elementName);
+			XMLElementContentType contentType;
+			contentType = element.getContentModel().getContentType();
+			if	(
+					contentType == XMLElementContentType.CHILDREN ||
+					contentType == XMLElementContentType.EMPTY
+				)
+			{
+				elementContent.append(
+					Strings.formatMessage(
+						elementContentFormat,
+						Integer.toString(elementIds.indexOf(elementName))
+					)
+				);
+			}
+		}
+
 		// Element rules
 		String emptyElementRule;
 		String startElementRule;
-		if (usesAttlists) {
+		StringBuilder declaredAttributes = new StringBuilder();
+		if (doctype.hasAttlists()) {
 			startElementRule = loadCodeFragment("START_TAG_ATTLIST");
 			emptyElementRule = loadCodeFragment("EMPTY_TAG_ATTLIST");
+
+			// Record the name and type of every declared attribute so that
+			// the generated parser can report the types and share the names.
+			String declaredAttributesFormat = loadCodeFragment(
+				"DECLARED_ATTRIBUTES_FMT"
+			);
+			Map<String, XMLAttributeList> attlists = doctype.attlists();
+			for (String elementName : attlists.keySet()) {
+				StringBuilder packed = new StringBuilder();
+				for (XMLAttribute att : attlists.get(elementName)) {
+					packed.append(att.getName());
+					packed.append(NULL);
+					packed.append(saxAttributeType(att.getType()));
+					packed.append(NULL);
+					packed.append(attributeMode(att.getDefaultDeclType()));
+					String defaultValue = att.getDefaultDeclType().getValue();
+					if (defaultValue != null) {
+						packed.append(defaultValue);
+					}
+					packed.append(NULL);
+				}
+				declaredAttributes.append(
+					Strings.formatMessage(
+						declaredAttributesFormat,
+						Integer.toString(elementIds.indexOf(elementName)),
+						toJavaStringLiterals(packed)
+					)
+				);
+			}
 		} else {
 			startElementRule = loadCodeFragment("START_TAG_NO_ATTLIST");
 			emptyElementRule = loadCodeFragment("EMPTY_TAG_NO_ATTLIST");
 		}
 
+		// Validation against the content models of the elements
+		String validationProcessor = "";
+		String validateStart = "";
+		String validateEnd = "";
+		String validateEmpty = "";
+		String validateText = "";
+		String validateFixedAttribute = "";
+		String validateRequiredAttribute = "";
+		if (Options.isSet("include", "validation")) {
+			StringBuilder contentModels = new StringBuilder();
+			String contentModelFormat = loadCodeFragment("CONTENT_MODEL_FMT");
+			for (String elementName : elements.keySet()) {
+				XMLElementContentModel model;
+				model = elements.get(elementName).getContentModel();
+				XMLElementContentType contentType = model.getContentType();
+				contentModels.append(
+					Strings.formatMessage(
+						contentModelFormat,
+						Integer.toString(elementIds.indexOf(elementName)),
+						toJavaStringLiterals(
+							packContentModel(
+								ContentModels.compile(model, elementIds)
+							)
+						),
+						Boolean.toString(
+							contentType == XMLElementContentType.MIXED ||
+							contentType == XMLElementContentType.ANY
+						)
+					)
+				);
+			}
+			validationProcessor = Strings.formatMessage(
+				loadCodeFragment("VALIDATION_PROCESSOR"),
+				contentModels.toString()
+			);
+			validateStart = loadCodeFragment("VALIDATE_START");
+			validateEnd = loadCodeFragment("VALIDATE_END");
+			validateEmpty = loadCodeFragment("VALIDATE_EMPTY");
+			validateText = loadCodeFragment("VALIDATE_TEXT");
+			validateFixedAttribute = loadCodeFragment(
+				"VALIDATE_FIXED_ATTRIBUTE"
+			);
+			validateRequiredAttribute = loadCodeFragment(
+				"VALIDATE_REQUIRED_ATTRIBUTE"
+			);
+		}
+
 		// Figure out the package
 		String packageStatement = "";
 		String pkg = Options.getString("output-package");
@@ -330,7 +499,19 @@ extends XMLParserSourceGenerator<T>
 			externalEntityRules,
 			charRefResolver,
 			intEntResolver,
-			packageStatement
+			packageStatement,
+			Integer.toString(BUFFER_SIZE),
+			declaredAttributes.toString(),
+			elementSymbols.toString(),
+			validationProcessor,
+			validateStart,
+			validateEnd,
+			validateEmpty,
+			validateText,
+			validateFixedAttribute,
+			validateRequiredAttribute,
+			elementContent.toString(),
+			Integer.toString(TEXT_TOKEN_LENGTH)
 		);
 		DBC.ASSERT(outputFileContents != null);
 
@@ -347,8 +528,668 @@ extends XMLParserSourceGenerator<T>
 		}
 	}
 
+	/** Give each element an id, which is its index in the returned {@link
+		List}. Elements which are only mentioned in an attribute list
+		declaration are included too.
+
+		@param	doctype	The {@link XMLDocumentType} to generate the parser
+						for.
+		@return			The names of the elements in order of their ids.
+	*/
+	private static List<String> elementIds(XMLDocumentType doctype) {
+		SortedSet<String> elementNames = new TreeSet<String>(
+			doctype.elements().keySet()
+		);
+		elementNames.addAll(doctype.attlists().keySet());
+		return new ArrayList<String>(elementNames);
+	}
+
+	/** Make the declarations of the constants which name the ids of the
+		elements and of their declared attributes, for the APIs which report
+		ids rather than names. An attribute has the same id as its position
+		in the attribute list declaration for its element.
+
+		@param	doctype						The {@link XMLDocumentType} to
+											generate the parser for.
+		@param	elementIds					The names of the elements in
+											order of their ids.
+		@return								The declarations of the
+											constants.
+		@throws	XMLParserGeneratorException	if the code fragments could not
+											be loaded.
+	*/
+	private String idConstants(XMLDocumentType doctype, List<String> elementIds)
+	throws XMLParserGeneratorException
+	{
+		String elementIdFormat = loadCodeFragment("ELEMENT_ID_FMT");
+		String attributeIdFormat = loadCodeFragment("ATTRIBUTE_ID_FMT");
+		Map<String, XMLAttributeList> attlists = doctype.attlists();
+		Set<String> used = new HashSet<String>();
+		used.add(UNDECLARED);
+		StringBuilder constants = new StringBuilder();
+		for (int id = 0; id < elementIds.size(); id++) {
+			String elementName = elementIds.get(id);
+			String elementConstant = constantName(elementName, used);
+			constants.append(
+				Strings.formatMessage(
+					elementIdFormat,
+					elementConstant,
+					elementName,
+					Integer.toString(id)
+				)
+			);
+			XMLAttributeList attlist = attlists.get(elementName);
+			if (attlist != null) {
+				int attributeId = 0;
+				for (XMLAttribute att : attlist) {
+					constants.append(
+						Strings.formatMessage(
+							attributeIdFormat,
+							constantName(
+								elementConstant + UNDERSCORE + att.getName(),
+								used
+							),
+							att.getName(),
+							elementName,
+							Integer.toString(attributeId++)
+						)
+					);
+				}
+			}
+		}
+		return constants.toString();
+	}
+
+	/** Make the name of a Java constant from an XML name. Letters are upper
+		cased and any characters which may not be used in a Java identifier
+		are replaced with underscores. If the name has already been used then
+		a number is added to the end of it.
+
+		@param	xmlName	The XML name.
+		@param	used	The names of the constants made so far, which the new
+						name is added to.
+		@return			The name of the constant.
+	*/
+	private static String constantName(String xmlName, Set<String> used) {
+		DBC.REQUIRE(xmlName != null);
+		DBC.REQUIRE(used != null);
+		assert xmlName != null;
+		assert used != null;
+
+		StringBuilder name = new StringBuilder(xmlName.length());
+		for (char c : xmlName.toUpperCase().toCharArray()) {
+			if (Character.isJavaIdentifierPart(c)) {
+				name.append(c);
+			} else {
+				name.append(UNDERSCORE);
+			}
+		}
+		if (!Character.isJavaIdentifierStart(name.charAt(0))) {
+			name.insert(0, UNDERSCORE);
+		}
+		String constant = name.toString();
+		for (int i = 2; used.contains(constant); i++) {
+			constant = name.toString() + UNDERSCORE + i;
+		}
+		used.add(constant);
+		return constant;
+	}
+
+	/** Make the table of the elements which may appear inside each element,
+		so that the generated parser can tell which elements cannot contain
+		the ones it is looking for. Each entry is a string of the ids of the
+		elements inside an element, one per character, or null if the element
+		may contain any element.
+
+		@param	doctype						The {@link XMLDocumentType} to
+											generate the parser for.
+		@param	elementIds					The names of the elements in
+											order of their ids.
+		@return								The entries of the table.
+		@throws	XMLParserGeneratorException	if the code fragments could not
+											be loaded.
+	*/
+	private String descendantsTable(
+		XMLDocumentType doctype,
+		List<String> elementIds
+	)
+	throws XMLParserGeneratorException
+	{
+		String descendantsFormat = loadCodeFragment("DESCENDANTS_FMT");
+		StringBuilder table = new StringBuilder();
+		BitSet[] descendants = ContentModels.descendants(
+			doctype.elements(),
+			elementIds
+		);
+		for (BitSet inside : descendants) {
+			table.append(
+				Strings.formatMessage(descendantsFormat, packIds(inside))
+			);
+		}
+		return table.toString();
+	}
+
+	/** Compile the queries given with the query option into the tables of
+		the automaton which matches them, for the APIs which support
+		queries. Each step of each query is a state of the automaton, and a
+		query which the DTD shows cannot match anything is left out, apart
+		from keeping its place in the list of queries.
+
+		@param	doctype						The {@link XMLDocumentType} to
+											generate the parser for.
+		@param	elementIds					The names of the elements in
+											order of their ids.
+		@return								The entries of the list of
+											queries, the number of states,
+											the statements which record the
+											states and the states which the
+											automaton starts in, in that
+											order.
+		@throws	XMLParserGeneratorException	if the code fragments could not
+											be loaded or if the queries are
+											malformed.
+	*/
+	private String[] queries(XMLDocumentType doctype, List<String> elementIds)
+	throws XMLParserGeneratorException
+	{
+		String queryFormat = loadCodeFragment("QUERY_FMT");
+		String stepFormat = loadCodeFragment("QUERY_STEP_FMT");
+		StringBuilder queryEntries = new StringBuilder();
+		StringBuilder steps = new StringBuilder();
+		List<String> startStates = new ArrayList<String>();
+		int state = 0;
+		String option = Options.getString("query");
+		if (option != null) {
+			List<List<Queries.Step>> queries;
+			try {
+				queries = Queries.parse(option);
+			} catch (ParseException e) {
+				throw new XMLParserGeneratorException(e);
+			}
+			for (int query = 0; query < queries.size(); query++) {
+				List<Queries.Step> querySteps = queries.get(query);
+				String text = Strings.join("", querySteps);
+				queryEntries.append(
+					Strings.formatMessage(
+						queryFormat,
+						Strings.toJavaStringLiteral(text)
+					)
+				);
+				if (!Queries.isPossible(querySteps, doctype, elementIds)) {
+					Log.warning(Message.QUERY_IMPOSSIBLE(text));
+					continue;
+				}
+
+				startStates.add(Integer.toString(state));
+				for (int i = 0; i < querySteps.size(); i++) {
+					Queries.Step step = querySteps.get(i);
+					String name = NULL_STRING;
+					if (step.getName() != null) {
+						name = Strings.toJavaStringLiteral(step.getName());
+					}
+					List<String> predicates = new ArrayList<String>();
+					for (String predicate : step.getPredicates()) {
+						if (predicate != null) {
+							predicates.add(
+								Strings.toJavaStringLiteral(predicate)
+							);
+						} else {
+							predicates.add(NULL_STRING);
+						}
+					}
+					String match = Integer.toString(-1);
+					if (i == querySteps.size() - 1) {
+						match = Integer.toString(query);
+					}
+					steps.append(
+						Strings.formatMessage(
+							stepFormat,
+							Integer.toString(state),
+							name,
+							Boolean.toString(step.isDescendant()),
+							Strings.join(
+								COMMA + String.valueOf(SPACE),
+								predicates
+							),
+							match,
+							packIds(
+								Queries.containers(step, doctype, elementIds)
+							)
+						)
+					);
+					state++;
+				}
+			}
+		}
+		return new String[] {
+			queryEntries.toString(),
+			Integer.toString(state),
+			steps.toString(),
+			Strings.join(COMMA + String.valueOf(SPACE), startStates),
+		};
+	}
+
+	/** Pack a set of element ids into a Java string literal, one id per
+		character, for the tables of the generated parser.
+
+		@param	ids	The element ids, or null.
+		@return		The Java string literal, or null if <code>ids</code> is
+					null.
+	*/
+	private static String packIds(BitSet ids) {
+		if (ids == null) {
+			return NULL_STRING;
+		}
+		StringBuilder packed = new StringBuilder();
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+			packed.append((char)id);
+		}
+		return Strings.toJavaStringLiteral(packed);
+	}
+
+	/** Make the code for the typed handler, which has a callback for the
+		start and the end of each element, for the APIs which have one. The
+		handler is dispatched to by element id and the attributes of each
+		element are given to it through a class with a getter for each of
+		the declared attributes.
+
+		@param	vocabulary					The name of the XML vocabulary that
+											the parser will parse.
+		@param	doctype						The {@link XMLDocumentType} to
+											generate the parser for.
+		@param	elementIds					The names of the elements in
+											order of their ids.
+		@return								The declarations of the
+											callbacks, the methods of the
+											adapter, the fields of the
+											dispatcher, the cases for the
+											start and the end of each element
+											and the attribute classes, in
+											that order.
+		@throws	XMLParserGeneratorException	if the code fragments could not
+											be loaded.
+	*/
+	private String[] typedHandler(
+		String vocabulary,
+		XMLDocumentType doctype,
+		List<String> elementIds
+	)
+	throws XMLParserGeneratorException
+	{
+		String callbackFormat = loadCodeFragment("TYPED_CALLBACK_FMT");
+		String adapterFormat = loadCodeFragment("TYPED_ADAPTER_FMT");
+		String fieldFormat = loadCodeFragment("TYPED_ATTRIBUTES_FIELD_FMT");
+		String startFormat = loadCodeFragment("TYPED_START_CASE_FMT");
+		String startAttlistFormat = loadCodeFragment(
+			"TYPED_START_CASE_ATTLIST_FMT"
+		);
+		String endFormat = loadCodeFragment("TYPED_END_CASE_FMT");
+		String classFormat = loadCodeFragment("TYPED_ATTRIBUTES_CLASS_FMT");
+		String parameterFormat = loadCodeFragment("TYPED_PARAMETER_FMT");
+		String parameterDocFormat = loadCodeFragment("TYPED_PARAMETER_DOC");
+		String getterFormat = loadCodeFragment("TYPED_GETTER_FMT");
+		String listGetterFormat = loadCodeFragment("TYPED_LIST_GETTER_FMT");
+
+		StringBuilder callbacks = new StringBuilder();
+		StringBuilder adapter = new StringBuilder();
+		StringBuilder fields = new StringBuilder();
+		StringBuilder startCases = new StringBuilder();
+		StringBuilder endCases = new StringBuilder();
+		StringBuilder classes = new StringBuilder();
+		Map<String, XMLAttributeList> attlists = doctype.attlists();
+		Set<String> usedElements = new HashSet<String>(
+			Arrays.asList(HANDLER_CALLBACKS)
+		);
+		for (int id = 0; id < elementIds.size(); id++) {
+			String elementName = elementIds.get(id);
+			String elementType = typeName(elementName, usedElements);
+			XMLAttributeList attlist = attlists.get(elementName);
+			String parameter = "";
+			String parameterDoc = "";
+			if (attlist != null) {
+				String className = vocabulary + elementType + ATTRIBUTES;
+				String fieldName = Strings.lowerCaseFirst(
+					elementType + ATTRIBUTES
+				);
+				parameter = Strings.formatMessage(parameterFormat, className);
+				parameterDoc = parameterDocFormat;
+
+				// The class which gives typed access to the attributes
+				StringBuilder getters = new StringBuilder();
+				Set<String> usedAttributes = new HashSet<String>();
+				int position = 0;
+				for (XMLAttribute att : attlist) {
+					XMLAttributeContentType type = att.getType();
+					String format;
+					switch (type.getType()) {
+						case IDREFS:
+						case ENTITIES:
+						case NMTOKENS:
+							format = listGetterFormat;
+							break;
+						default:
+							format = getterFormat;
+							break;
+					}
+					getters.append(
+						Strings.formatMessage(
+							format,
+							getterName(att.getName(), usedAttributes),
+							att.getName(),
+							Integer.toString(position++),
+							declaredType(type),
+							vocabulary
+						)
+					);
+				}
+				classes.append(
+					Strings.formatMessage(
+						classFormat,
+						className,
+						elementName,
+						getters.toString()
+					)
+				);
+				fields.append(
+					Strings.formatMessage(
+						fieldFormat,
+						fieldName,
+						className,
+						elementName
+					)
+				);
+				startCases.append(
+					Strings.formatMessage(
+						startAttlistFormat,
+						Integer.toString(id),
+						elementType,
+						fieldName
+					)
+				);
+			} else {
+				startCases.append(
+					Strings.formatMessage(
+						startFormat,
+						Integer.toString(id),
+						elementType
+					)
+				);
+			}
+			callbacks.append(
+				Strings.formatMessage(
+					callbackFormat,
+					elementType,
+					elementName,
+					parameter,
+					parameterDoc
+				)
+			);
+			adapter.append(
+				Strings.formatMessage(
+					adapterFormat,
+					elementType,
+					elementName,
+					parameter,
+					parameterDoc
+				)
+			);
+			endCases.append(
+				Strings.formatMessage(
+					endFormat,
+					Integer.toString(id),
+					elementType
+				)
+			);
+		}
+		return new String[] {
+			callbacks.toString(),
+			adapter.toString(),
+			fields.toString(),
+			startCases.toString(),
+			endCases.toString(),
+			classes.toString(),
+		};
+	}
+
+	/** Make a name for use in Java method and class names from an XML name.
+		The parts of the name between characters which may not be used in a
+		Java identifier have their first letters upper cased and are joined
+		together. If the name has already been used then a number is added
+		to the end of it.
+
+		@param	xmlName	The XML name.
+		@param	used	The names made so far, which the new name is added
+						to.
+		@return			The name for use in Java.
+	*/
+	private static String typeName(String xmlName, Set<String> used) {
+		DBC.REQUIRE(xmlName != null);
+		DBC.REQUIRE(used != null);
+		assert xmlName != null;
+		assert used != null;
+
+		StringBuilder name = new StringBuilder(xmlName.length());
+		boolean startOfPart = true;
+		for (char c : xmlName.toCharArray()) {
+			if (Character.isJavaIdentifierPart(c)) {
+				if (startOfPart) {
+					name.append(Character.toUpperCase(c));
+				} else {
+					name.append(c);
+				}
+				startOfPart = false;
+			} else {
+				startOfPart = true;
+			}
+		}
+		if (name.length() == 0) {
+			name.append(UNDERSCORE);
+		}
+		String typeName = name.toString();
+		for (int i = 2; used.contains(typeName); i++) {
+			typeName = name.toString() + i;
+		}
+		used.add(typeName);
+		return typeName;
+	}
+
+	/** Make the name for the getter of an attribute in the classes which
+		give typed access to the attributes of an element. This is the same
+		as {@link #typeName(String, Set)} except that names which are in
+		RESERVED_GETTERS have RESERVED_SUFFIX added to them, so an attribute
+		called <code>class</code> gets a <code>getClassAttribute()</code>
+		method.
+
+		@param	xmlName	The name of the attribute.
+		@param	used	The names made so far, which the new name is added
+						to.
+		@return			The name for use in the getter.
+	*/
+	private static String getterName(String xmlName, Set<String> used) {
+		String name = typeName(xmlName, new HashSet<String>());
+		if (Arrays.asList(RESERVED_GETTERS).contains(name)) {
+			name += RESERVED_SUFFIX;
+		}
+		return typeName(name, used);
+	}
+
+	/** Describe the declared type of an attribute in the way it is written
+		in an attribute list declaration.
+
+		@param	type	The declared type of the attribute.
+		@return			The type as it is declared.
+	*/
+	private static String declaredType(XMLAttributeContentType type) {
+		DBC.REQUIRE(type != null);
+		assert type != null;
+
+		switch (type.getType()) {
+			case ENUMERATION:
+				return "(" + Strings.join(" | ", type.getValues()) + ")";
+			case NOTATION:
+				return	type.getType().name() + " (" +
+						Strings.join(" | ", type.getValues()) + ")";
+			default:
+				return type.getType().name();
+		}
+	}
+
+	/** Pack the transition table of a content model into a {@link String}
+		for the generated parser to unpack. Most children are not allowed in
+		most states, so only the allowed ones are stored. Each row is packed
+		as 1 or 0 for whether the content may end in that state, the number
+		of allowed children, and then the id of each allowed child followed
+		by the state it leads to.
+
+		@param	table	The transition table made by {@link
+						ContentModels#compile(XMLElementContentModel, List)}.
+		@return			The table packed into a {@link String}.
+	*/
+	private static String packContentModel(int[][] table) {
+		StringBuilder packed = new StringBuilder();
+		for (int[] row : table) {
+			int children = 0;
+			for (int i = 0; i < row.length - 1; i++) {
+				if (row[i] >= 0) {
+					children++;
+				}
+			}
+			packed.append((char)row[row.length - 1]);
+			packed.append((char)children);
+			for (int i = 0; i < row.length - 1; i++) {
+				if (row[i] >= 0) {
+					packed.append((char)i);
+					packed.append((char)row[i]);
+				}
+			}
+		}
+		return packed.toString();
+	}
+
+	/** Split a {@link CharSequence} into Java string literals which are
+		each short enough to be a constant in a class file, for the generated
+		parser to join back together. The length of a constant is limited by
+		the size of its modified UTF-8 encoding rather than by the number of
+		characters in it.
+
+		@param	s	The {@link CharSequence} to split.
+		@return		The literals, separated by commas.
+	*/
+	private static String toJavaStringLiterals(CharSequence s) {
+		DBC.REQUIRE(s != null);
+		assert s != null;
+
+		List<String> literals = new ArrayList<String>();
+		int start = 0;
+		int encodedLength = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			int charLength;
+			if (c != NULL && c < TWO_BYTE_UTF8) {
+				charLength = 1;
+			} else if (c < THREE_BYTE_UTF8) {
+				charLength = 2;
+			} else {
+				charLength = 3;
+			}
+			if (encodedLength + charLength > MAX_LITERAL_BYTES) {
+				literals.add(
+					Strings.toJavaStringLiteral(s.subSequence(start, i))
+				);
+				start = i;
+				encodedLength = 0;
+			}
+			encodedLength += charLength;
+		}
+		literals.add(
+			Strings.toJavaStringLiteral(s.subSequence(start, s.length()))
+		);
+		return Strings.join(COMMA + String.valueOf(SPACE), literals);
+	}
+
+	/** Make a JFlex rule for each of the internal entities so that they are
+		expanded by the scanner itself rather than looked up in a resource
+		file during the parse. References to any other entities are passed
+		through as content.
+
+		@param	entities					The entities declared in the DTD.
+		@return								The JFlex rules for the entities.
+		@throws	XMLParserGeneratorException	if the code fragments could not be
+											loaded or if the value of an
+											entity contains a malformed
+											character reference.
+	*/
+	private String compiledEntityRules(Map<String, XMLEntity> entities)
+	throws XMLParserGeneratorException
+	{
+		StringBuilder rules = new StringBuilder();
+		if (entities != null) {
+			String ruleFormat = loadCodeFragment("INT_ENT_RULE_FMT");
+			for (String entityName : entities.keySet()) {
+				XMLEntity entity = entities.get(entityName);
+				if (entity.type().equals(XMLEntityType.INTERNAL)) {
+					String value;
+					try {
+						value = XML.resolveCharacterReferences(entity.value());
+					} catch (ParseException e) {
+						throw new XMLParserGeneratorException(e);
+					}
+					rules.append(
+						Strings.formatMessage(
+							ruleFormat,
+							entityName,
+							Strings.toJavaStringLiteral(value)
+						)
+					);
+				}
+			}
+		}
+		rules.append(loadCodeFragment("UNDEFINED_ENT_PROCESSOR"));
+		return rules.toString();
+	}
+
+	/** Get the attribute type which SAX reports for a given declared type.
+		SAX reports enumerated types as NMTOKEN and all other types by their
+		name.
+
+		@param	type	The declared type of the attribute.
+		@return			The name of the type as SAX reports it.
+	*/
+	private static String saxAttributeType(XMLAttributeContentType type) {
+		DBC.REQUIRE(type != null);
+		assert type != null;
+
+		if (type.getType().equals(XMLAttributeContentType.Type.ENUMERATION)) {
+			return XMLAttributeContentType.Type.NMTOKEN.name();
+		}
+		return type.getType().name();
+	}
+
+	/** Get the character which stands for the default declaration of an
+		attribute in the generated parser: R for #REQUIRED, I for #IMPLIED, F
+		for #FIXED and D for a plain default value.
+
+		@param	defaultType	The default declaration of the attribute.
+		@return				The character which stands for it.
+	*/
+	private static char attributeMode(XMLAttributeDefaultType defaultType) {
+		DBC.REQUIRE(defaultType != null);
+		assert defaultType != null;
+
+		String value = defaultType.getValue();
+		if (defaultType.sameType(XMLAttributeDefaultType.REQUIRED())) {
+			return 'R';
+		} else if (defaultType.sameType(XMLAttributeDefaultType.IMPLIED())) {
+			return 'I';
+		} else if (defaultType.sameType(XMLAttributeDefaultType.FIXED(value))) {
+			return 'F';
+		}
+		return 'D';
+	}
+
 	/** Generate the resource file containing all of the entities. If entities
-		are not included, then no file is created.
+		are not included, or are compiled into the parser, then no file is
+		created.
 
 		@param	entities					The entities declared in the DTD.
 		@param	outputFile					The {@link File} to output to.
@@ -367,7 +1208,11 @@ extends XMLParserSourceGenerator<T>
 		assert entities != null;
 		assert outputFile != null;
 
-		if (Options.isSet("include", "entities")) {
+		if	(
+				Options.isSet("include", "entities") &&
+				!Options.isSet("include", "compiled-entities")
+			)
+		{
 			// Get the template
 			String messageFormatTemplate = loadCodeFragment(
 				"ENTITIES_MAIN_TEMPLATE"
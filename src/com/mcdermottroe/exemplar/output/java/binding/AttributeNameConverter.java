@@ -35,6 +35,9 @@ import com.mcdermottroe.exemplar.output.XMLParserGeneratorException;
 import com.mcdermottroe.exemplar.ui.Message;
 import com.mcdermottroe.exemplar.utils.Strings;
 
+import static com.mcdermottroe.exemplar.Constants.Output.Java.BINDING_GETTERS;
+import static com.mcdermottroe.exemplar.Constants.Output.Java.RESERVED_SUFFIX;
+
 /** A converter for turning attribute names into variable, getter and setter
 	names.
 
@@ -150,7 +153,10 @@ implements Comparable<T>, Copyable<T>
 	throws XMLParserGeneratorException;
 
 	/** Convert an XML attribute into the name of a getter for a similarly
-		named variable.
+		named variable. A getter which would clash with a method that every
+		element class has, such as getClass() or getParent(), has
+		"Attribute" added to its name, so an attribute called "class" gets
+		a getClassAttribute() method.
 		
 		@param	attribute					The attribute.
 		@return								A name close to the attribute name
@@ -165,7 +171,10 @@ implements Comparable<T>, Copyable<T>
 		if (attribute == null) {
 			return null;
 		}
-		String getterName = generateGetterName(attribute);
+		String getterName = avoidReserved(
+			generateGetterName(attribute),
+			"get"
+		);
 		if (!Strings.isLegalJavaIdentifier(getterName)) {
 			throw new XMLParserGeneratorException(
 				Message.GEN_GETTER_FROM_ATT_FAILED(attribute.getName())
@@ -193,7 +202,8 @@ implements Comparable<T>, Copyable<T>
 	}
 
 	/** Convert an XML attribute into the name of a setter for a similarly
-		named variable.
+		named variable. The setter is renamed in the same way as the getter
+		so that the two still match.
 		
 		@param	attribute					The attribute.
 		@return								A name close to the attribute name
@@ -208,7 +218,10 @@ implements Comparable<T>, Copyable<T>
 		if (attribute == null) {
 			return null;
 		}
-		String setterName = generateSetterName(attribute);
+		String setterName = avoidReserved(
+			generateSetterName(attribute),
+			"set"
+		);
 		if (!Strings.isLegalJavaIdentifier(setterName)) {
 			throw new XMLParserGeneratorException(
 				Message.GEN_SETTER_FROM_ATT_FAILED(attribute.getName())
@@ -235,6 +248,26 @@ implements Comparable<T>, Copyable<T>
 		return setter.toString();
 	}
 
+	/** Add "Attribute" to the end of an access method name if the rest of
+		the name after the prefix is one of the reserved getter names.
+
+		@param	methodName	The name of the access method.
+		@param	prefix		The prefix of the method name, "get" or "set".
+		@return				The method name, with "Attribute" added if it
+							would otherwise clash with an inherited method.
+	*/
+	private static String avoidReserved(String methodName, String prefix) {
+		if (methodName != null && methodName.startsWith(prefix)) {
+			String property = methodName.substring(prefix.length());
+			for (String reserved : BINDING_GETTERS) {
+				if (reserved.equals(property)) {
+					return methodName + RESERVED_SUFFIX;
+				}
+			}
+		}
+		return methodName;
+	}
+
 	/** Implement {@link Comparable#compareTo(Object)}.
 
 		@param	other	See {@link Comparable#compareTo(Object)}.
@@ -49,7 +49,6 @@ import com.mcdermottroe.exemplar.ui.Message;
 import com.mcdermottroe.exemplar.ui.Options;
 import com.mcdermottroe.exemplar.utils.Strings;
 
-import static com.mcdermottroe.exemplar.Constants.Character.DOUBLE_QUOTE;
 import static com.mcdermottroe.exemplar.Constants.Character.RIGHT_CURLY;
 import static com.mcdermottroe.exemplar.Constants.Character.RIGHT_PAREN;
 import static com.mcdermottroe.exemplar.Constants.Character.TAB;
@@ -217,6 +216,7 @@ extends XMLParserSourceGenerator<Generator>
 			for (String elementName : elements.keySet()) {
 				createElementClass(elements.get(elementName), elementsDir);
 			}
+			createElementFactoryClass(elementsDir, classNames);
 		}
 	}
 
@@ -452,113 +452,253 @@ extends XMLParserSourceGenerator<Generator>
 
 		// Make a member and getters and setters  for each attribute of the
 		// class.
-		StringBuilder constructorCode = new StringBuilder();
+		StringBuilder fields = new StringBuilder();
+		StringBuilder attributesBody = new StringBuilder();
+		// Keyed by attribute name, so that writeAttributes() writes the
+		// attributes in name order as the attributes() map always has.
+		SortedMap<String, StringBuilder> writeAttributes =
+			new TreeMap<String, StringBuilder>();
 		StringBuilder accessMethods = new StringBuilder();
 		StringBuilder compareToBody = new StringBuilder();
 		StringBuilder hashCodeBody = new StringBuilder();
+		StringBuilder setAttributeBody = new StringBuilder();
 		for (XMLAttribute attribute : element.getAttlist()) {
 			String attributeName = attribute.getName();
+			String valueField = attNameGenerator.getVariableName(
+				attribute,
+				null,
+				"value"
+			);
+			String setField = attNameGenerator.getVariableName(
+				attribute,
+				null,
+				"set"
+			);
 
+			String attributeLiteral = Strings.toPlainJavaStringLiteral(
+				attributeName
+			);
 			String fixedValue = null;
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append("attributes.put(");
-			constructorCode.append(EOL);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(DOUBLE_QUOTE);
-			constructorCode.append(attributeName);
-			constructorCode.append("\",");
-			constructorCode.append(EOL);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append("new ");
-			constructorCode.append(PROGRAM_NAME);
-			constructorCode.append("Attribute(");
-			constructorCode.append(EOL);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(DOUBLE_QUOTE);
-			constructorCode.append(attributeName);
-			constructorCode.append("\",");
-			constructorCode.append(EOL);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
+			String defaultValue = null;
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append("atts.put(");
+			attributesBody.append(EOL);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(attributeLiteral);
+			attributesBody.append(',');
+			attributesBody.append(EOL);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append("new ");
+			attributesBody.append(PROGRAM_NAME);
+			attributesBody.append("Attribute(");
+			attributesBody.append(EOL);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(attributeLiteral);
+			attributesBody.append(',');
+			attributesBody.append(EOL);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
 
 			XMLAttributeDefaultType type = attribute.getDefaultDeclType();
 			if (XMLAttributeDefaultType.ATTVALUE("foo").sameType(type)) {
-				constructorCode.append(PROGRAM_NAME);
-				constructorCode.append("Attribute.DEFAULT,");
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(DOUBLE_QUOTE);
-				constructorCode.append(type.getValue());
-				constructorCode.append(DOUBLE_QUOTE);
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(RIGHT_PAREN);
+				attributesBody.append(PROGRAM_NAME);
+				attributesBody.append("Attribute.DEFAULT,");
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(
+					Strings.toPlainJavaStringLiteral(type.getValue())
+				);
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(RIGHT_PAREN);
+				defaultValue = type.getValue();
 			} else if (XMLAttributeDefaultType.FIXED("foo").sameType(type)) {
-				constructorCode.append(PROGRAM_NAME);
-				constructorCode.append("Attribute.FIXED,");
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(DOUBLE_QUOTE);
-				constructorCode.append(type.getValue());
-				constructorCode.append(DOUBLE_QUOTE);
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(RIGHT_PAREN);
+				attributesBody.append(PROGRAM_NAME);
+				attributesBody.append("Attribute.FIXED,");
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(
+					Strings.toPlainJavaStringLiteral(type.getValue())
+				);
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(RIGHT_PAREN);
 				fixedValue = type.getValue();
 			} else if (XMLAttributeDefaultType.IMPLIED().sameType(type)) {
-				constructorCode.append(PROGRAM_NAME);
-				constructorCode.append("Attribute.IMPLIED,");
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append("null");
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(RIGHT_PAREN);
+				attributesBody.append(PROGRAM_NAME);
+				attributesBody.append("Attribute.IMPLIED,");
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append("null");
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(RIGHT_PAREN);
 			} else if (XMLAttributeDefaultType.REQUIRED().sameType(type)) {
-				constructorCode.append(PROGRAM_NAME);
-				constructorCode.append("Attribute.REQUIRED,");
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append("null");
-				constructorCode.append(EOL);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(TAB);
-				constructorCode.append(RIGHT_PAREN);
+				attributesBody.append(PROGRAM_NAME);
+				attributesBody.append("Attribute.REQUIRED,");
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append("null");
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(RIGHT_PAREN);
+			}
+			attributesBody.append(EOL);
+			attributesBody.append(TAB);
+			attributesBody.append(TAB);
+			attributesBody.append(");");
+			attributesBody.append(EOL);
+
+			// The fields holding the value, only an attribute with a default
+			// needs to remember whether it has been given a value as well.
+			if (fixedValue == null) {
+				fields.append(TAB);
+				fields.append("/** The value of the ");
+				fields.append(attributeName);
+				fields.append(" attribute. */");
+				fields.append(EOL);
+				fields.append(TAB);
+				fields.append("private String ");
+				fields.append(valueField);
+				if (defaultValue != null) {
+					fields.append(" = ");
+					fields.append(
+						Strings.toPlainJavaStringLiteral(defaultValue)
+					);
+				}
+				fields.append(';');
+				fields.append(EOL);
+				fields.append(EOL);
+				if (defaultValue != null) {
+					fields.append(TAB);
+					fields.append("/** True if the ");
+					fields.append(attributeName);
+					fields.append(" attribute has been given a value. */");
+					fields.append(EOL);
+					fields.append(TAB);
+					fields.append("private boolean ");
+					fields.append(setField);
+					fields.append(';');
+					fields.append(EOL);
+					fields.append(EOL);
+				}
+
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				if (defaultValue != null) {
+					attributesBody.append("if (");
+					attributesBody.append(setField);
+					attributesBody.append(" || ");
+					attributesBody.append(valueField);
+					attributesBody.append(" == null) {");
+					attributesBody.append(EOL);
+					attributesBody.append(TAB);
+					attributesBody.append(TAB);
+					attributesBody.append(TAB);
+				}
+				attributesBody.append("atts.get(");
+				attributesBody.append(attributeLiteral);
+				attributesBody.append(").setValue(");
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				if (defaultValue != null) {
+					attributesBody.append(TAB);
+				}
+				attributesBody.append(valueField);
+				attributesBody.append(EOL);
+				attributesBody.append(TAB);
+				attributesBody.append(TAB);
+				if (defaultValue != null) {
+					attributesBody.append(TAB);
+				}
+				attributesBody.append(");");
+				attributesBody.append(EOL);
+				if (defaultValue != null) {
+					attributesBody.append(TAB);
+					attributesBody.append(TAB);
+					attributesBody.append(RIGHT_CURLY);
+					attributesBody.append(EOL);
+				}
+
+				StringBuilder writeAttribute = new StringBuilder();
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append("if (");
+				if (defaultValue != null) {
+					writeAttribute.append(setField);
+				} else {
+					writeAttribute.append(valueField);
+					writeAttribute.append(" != null");
+				}
+				writeAttribute.append(") {");
+				writeAttribute.append(EOL);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append("writeAttribute(");
+				writeAttribute.append(EOL);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append("w,");
+				writeAttribute.append(EOL);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(attributeLiteral);
+				writeAttribute.append(',');
+				writeAttribute.append(EOL);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(valueField);
+				writeAttribute.append(EOL);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(");");
+				writeAttribute.append(EOL);
+				writeAttribute.append(TAB);
+				writeAttribute.append(TAB);
+				writeAttribute.append(RIGHT_CURLY);
+				writeAttribute.append(EOL);
+				writeAttributes.put(attributeName, writeAttribute);
 			}
-			constructorCode.append(EOL);
-			constructorCode.append(TAB);
-			constructorCode.append(TAB);
-			constructorCode.append(");");
-			constructorCode.append(EOL);
 
 			// The getter
 			accessMethods.append(EOL);
@@ -585,16 +725,18 @@ extends XMLParserSourceGenerator<Generator>
 				accessMethods.append(EOL);
 				accessMethods.append(TAB);
 				accessMethods.append(TAB);
-				accessMethods.append("return attributes.get(\"");
-				accessMethods.append(attributeName);
-				accessMethods.append("\").getValue();");
+				accessMethods.append("return ");
+				accessMethods.append(valueField);
+				accessMethods.append(';');
 			} else {
 				accessMethods.append(EOL);
 				accessMethods.append(TAB);
 				accessMethods.append(TAB);
-				accessMethods.append("return \"");
-				accessMethods.append(fixedValue);
-				accessMethods.append("\";");
+				accessMethods.append("return ");
+				accessMethods.append(
+					Strings.toPlainJavaStringLiteral(fixedValue)
+				);
+				accessMethods.append(';');
 			}
 			accessMethods.append(EOL);
 			accessMethods.append(TAB);
@@ -626,27 +768,86 @@ extends XMLParserSourceGenerator<Generator>
 				accessMethods.append(EOL);
 				accessMethods.append(TAB);
 				accessMethods.append(TAB);
-				accessMethods.append(PROGRAM_NAME);
-				accessMethods.append("Attribute att = ");
-				accessMethods.append("attributes.remove(\"");
-				accessMethods.append(attributeName);
-				accessMethods.append("\");");
-				accessMethods.append(EOL);
-				accessMethods.append(TAB);
-				accessMethods.append(TAB);
-				accessMethods.append("att.setValue(value);");
-				accessMethods.append(EOL);
-				accessMethods.append(TAB);
-				accessMethods.append(TAB);
-				accessMethods.append("attributes.put(\"");
-				accessMethods.append(attributeName);
-				accessMethods.append("\", att);");
+				accessMethods.append(valueField);
+				accessMethods.append(" = value;");
 				accessMethods.append(EOL);
+				if (defaultValue != null) {
+					accessMethods.append(TAB);
+					accessMethods.append(TAB);
+					accessMethods.append(setField);
+					accessMethods.append(" = value != null;");
+					accessMethods.append(EOL);
+				}
 				accessMethods.append(TAB);
 				accessMethods.append(RIGHT_CURLY);
 				accessMethods.append(EOL);
 			}
 
+			// Dispatch to the setter by name, a FIXED attribute may only be
+			// given its fixed value.
+			setAttributeBody.append(TAB);
+			setAttributeBody.append(TAB);
+			setAttributeBody.append("if (");
+			setAttributeBody.append(attributeLiteral);
+			setAttributeBody.append(".equals(attName)) {");
+			setAttributeBody.append(EOL);
+			setAttributeBody.append(TAB);
+			setAttributeBody.append(TAB);
+			setAttributeBody.append(TAB);
+			if (fixedValue == null) {
+				setAttributeBody.append(
+					attNameGenerator.getSetterName(attribute)
+				);
+				setAttributeBody.append("(value);");
+				setAttributeBody.append(EOL);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append("return true;");
+			} else {
+				setAttributeBody.append("if (!");
+				setAttributeBody.append(
+					attNameGenerator.getGetterName(attribute)
+				);
+				setAttributeBody.append("().equals(value)) {");
+				setAttributeBody.append(EOL);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append("throw new IllegalArgumentException(");
+				setAttributeBody.append(EOL);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(
+					"\"Not the #FIXED value of \" + attName + \": \" + value"
+				);
+				setAttributeBody.append(EOL);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(");");
+				setAttributeBody.append(EOL);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(RIGHT_CURLY);
+				setAttributeBody.append(EOL);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append(TAB);
+				setAttributeBody.append("return true;");
+			}
+			setAttributeBody.append(EOL);
+			setAttributeBody.append(TAB);
+			setAttributeBody.append(TAB);
+			setAttributeBody.append(RIGHT_CURLY);
+			setAttributeBody.append(EOL);
+
 			// Make the comparator
 			if (fixedValue == null) {
 				String cmpVar = attNameGenerator.getVariableName(
@@ -756,9 +957,87 @@ extends XMLParserSourceGenerator<Generator>
 			}
 		}
 
+		if (setAttributeBody.length() > 0) {
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("/** {@inheritDoc} */");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("@Override public boolean setAttribute(");
+			accessMethods.append("String attName, String value) {");
+			accessMethods.append(EOL);
+			accessMethods.append(setAttributeBody);
+			accessMethods.append(TAB);
+			accessMethods.append(TAB);
+			accessMethods.append("return false;");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append(RIGHT_CURLY);
+			accessMethods.append(EOL);
+		}
+
+		if (attributesBody.length() > 0) {
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("/** {@inheritDoc} */");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("@Override public Map<String, ");
+			accessMethods.append(PROGRAM_NAME);
+			accessMethods.append("Attribute> attributes() {");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append(TAB);
+			accessMethods.append("Map<String, ");
+			accessMethods.append(PROGRAM_NAME);
+			accessMethods.append("Attribute> atts = super.attributes();");
+			accessMethods.append(EOL);
+			accessMethods.append(attributesBody);
+			accessMethods.append(TAB);
+			accessMethods.append(TAB);
+			accessMethods.append("return atts;");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append(RIGHT_CURLY);
+			accessMethods.append(EOL);
+		}
+
+		if (!writeAttributes.isEmpty()) {
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("/** {@inheritDoc} */");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("@Override protected void writeAttributes(");
+			accessMethods.append("Writer w)");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("throws IOException");
+			accessMethods.append(EOL);
+			accessMethods.append(TAB);
+			accessMethods.append("{");
+			accessMethods.append(EOL);
+			for (StringBuilder writeAttribute : writeAttributes.values()) {
+				accessMethods.append(writeAttribute);
+			}
+			accessMethods.append(TAB);
+			accessMethods.append(RIGHT_CURLY);
+			accessMethods.append(EOL);
+		}
+
 		String attributeClassImport;
 		if (!element.getAttlist().getAttributes().isEmpty()) {
-			StringBuilder attClassImport = new StringBuilder("import ");
+			StringBuilder attClassImport = new StringBuilder();
+			if (!writeAttributes.isEmpty()) {
+				attClassImport.append("import java.io.IOException;");
+				attClassImport.append(EOL);
+				attClassImport.append("import java.io.Writer;");
+				attClassImport.append(EOL);
+			}
+			attClassImport.append("import java.util.Map;");
+			attClassImport.append(EOL);
+			attClassImport.append(EOL);
+			attClassImport.append("import ");
 			attClassImport.append(basePackage);
 			attClassImport.append(".support.");
 			attClassImport.append(PROGRAM_NAME);
@@ -781,7 +1060,7 @@ extends XMLParserSourceGenerator<Generator>
 			basePackage,
 			element.getName(),
 			className,
-			constructorCode,
+			fields,
 			accessMethods,
 			compareToBody,
 			hashCodeBody,
@@ -802,6 +1081,71 @@ extends XMLParserSourceGenerator<Generator>
 		}
 	}
 
+	/** Create the class which makes element objects by name, so that the
+		parser need not use reflection.
+
+		@param	dir							The directory in which to place the
+											class.
+		@param	classNames					A {@link Map} of class names to
+											{@link XMLElement}s for the
+											elements which the class makes.
+		@throws	XMLParserGeneratorException	if the class cannot be generated.
+	*/
+	protected void createElementFactoryClass(
+		File dir,
+		Map<String, XMLElement> classNames
+	)
+	throws XMLParserGeneratorException
+	{
+		Log.debug("Creating the element factory class");
+		DBC.REQUIRE(dir != null);
+		assert dir != null;
+		DBC.REQUIRE(classNames != null);
+		assert classNames != null;
+
+		// Ensure that the directory exists
+		dir.mkdirs();
+
+		// Add a prototype of each element to the lookup table
+		StringBuilder prototypes = new StringBuilder();
+		for (String className : classNames.keySet()) {
+			prototypes.append(TAB);
+			prototypes.append(TAB);
+			prototypes.append("add(new ");
+			prototypes.append(className);
+			prototypes.append("());");
+			prototypes.append(EOL);
+		}
+
+		// Get the template
+		String messageFormatTemplate = loadCodeFragment(
+			"ELEMENT_FACTORY_CLASS"
+		);
+		DBC.ASSERT(messageFormatTemplate != null);
+
+		// Make the contents of the output file
+		String outputFileContents = Strings.formatMessage(
+			messageFormatTemplate,
+			PROGRAM_NAME,
+			timestamp,
+			basePackage,
+			prototypes
+		);
+
+		// Write out the file
+		File file = new File(dir, PROGRAM_NAME + "Elements.java");
+		try {
+			OutputUtils.writeStringToFile(outputFileContents, file);
+		} catch (OutputException e) {
+			throw new XMLParserGeneratorException(
+				Message.FILE_WRITE_FAILED(
+					file.getAbsolutePath()
+				),
+				e
+			);
+		}
+	}
+
 	/** Create the XMLContent class.
 
 		@param	dir							The directory in which to create
@@ -265,6 +265,16 @@ public final class Message {
 	*/
 	private static String OPTIONS_NO_SUCH_OPTION_MESSAGE_FORMAT = DEFAULT_MESSAGE;
 
+	/** {@link java.text.MessageFormat} string for {@link
+		#QUERY_IMPOSSIBLE(String)}.
+	*/
+	private static String QUERY_IMPOSSIBLE_MESSAGE_FORMAT = DEFAULT_MESSAGE;
+
+	/** {@link java.text.MessageFormat} string for {@link
+		#QUERY_SYNTAX_ERROR(String)}.
+	*/
+	private static String QUERY_SYNTAX_ERROR_MESSAGE_FORMAT = DEFAULT_MESSAGE;
+
 	/** {@link java.text.MessageFormat} string for {@link
 		#SCHEMA_ATTRIBUTE_ILLEGAL_CONTENT(String)}.
 	*/
@@ -917,6 +927,27 @@ public final class Message {
 		);
 	}
 
+	/** A query can never match in a valid document, so it was left out of
+		the generated parser.
+
+		@param	query	The query.
+		@return			A message formatted using {@link
+						#QUERY_IMPOSSIBLE_MESSAGE_FORMAT}.
+	*/
+	public static String QUERY_IMPOSSIBLE(String query) {
+		return Strings.formatMessage(QUERY_IMPOSSIBLE_MESSAGE_FORMAT, query);
+	}
+
+	/** A query could not be parsed.
+
+		@param	query	The query.
+		@return			A message formatted using {@link
+						#QUERY_SYNTAX_ERROR_MESSAGE_FORMAT}.
+	*/
+	public static String QUERY_SYNTAX_ERROR(String query) {
+		return Strings.formatMessage(QUERY_SYNTAX_ERROR_MESSAGE_FORMAT, query);
+	}
+
 	/** The content model of an attribute definition was illegal.
 
 		@param	attributeName	The name of the illegal attribute.
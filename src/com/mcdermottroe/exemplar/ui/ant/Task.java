@@ -263,6 +263,14 @@ implements Comparable<Task>, Copyable<Task>
 		Options.set("output-package", outputPackage);
 	}
 
+	/** Setter for the query attribute of the task.
+
+		@param	query	This is the string value of the query attribute.
+	*/
+	public static void setQuery(String query) {
+		Options.set("query", query);
+	}
+
 	/** Setter for the verbose attribute of the task. This is actually a no-op
 		as the task is always verbose.
 
@@ -38,7 +38,10 @@ import java.util.List;
 
 import com.mcdermottroe.exemplar.DBC;
 
+import static com.mcdermottroe.exemplar.Constants.Character.BACKSLASH;
 import static com.mcdermottroe.exemplar.Constants.Character.CARRIAGE_RETURN;
+import static com.mcdermottroe.exemplar.Constants.Character.DOUBLE_QUOTE;
+import static com.mcdermottroe.exemplar.Constants.Character.FIRST_NON_ASCII;
 import static com.mcdermottroe.exemplar.Constants.Character.LEFT_CURLY;
 import static com.mcdermottroe.exemplar.Constants.Character.NEW_LINE;
 import static com.mcdermottroe.exemplar.Constants.Character.NULL;
@@ -139,6 +142,91 @@ public final class Strings {
 		return returnValue.toString();
 	}
 
+	/** Convert a {@link CharSequence} to a Java string literal, including
+		the surrounding double quotes. Letters, digits and spaces are copied
+		as they are, backslashes, double quotes and line terminators are given
+		their usual escapes and all other characters are written as Java
+		Unicode escapes.
+
+		@param	s	The {@link CharSequence} to convert.
+		@return		A Java string literal which evaluates to the same
+					characters as <code>s</code>.
+	*/
+	public static String toJavaStringLiteral(CharSequence s) {
+		return toJavaStringLiteral(s, false);
+	}
+
+	/** Convert a {@link CharSequence} to a Java string literal, including
+		the surrounding double quotes, which reads as much like the original
+		as possible. Unlike {@link #toJavaStringLiteral(CharSequence)}, all
+		printable ASCII characters are copied as they are. Backslashes, double
+		quotes and line terminators are given their usual escapes and all
+		other characters are written as Java Unicode escapes.
+
+		@param	s	The {@link CharSequence} to convert.
+		@return		A Java string literal which evaluates to the same
+					characters as <code>s</code>.
+	*/
+	public static String toPlainJavaStringLiteral(CharSequence s) {
+		return toJavaStringLiteral(s, true);
+	}
+
+	/** Convert a {@link CharSequence} to a Java string literal, including
+		the surrounding double quotes.
+
+		@param	s		The {@link CharSequence} to convert.
+		@param	plain	If true, copy all printable ASCII characters as they
+						are, otherwise only copy letters, digits and spaces.
+		@return			A Java string literal which evaluates to the same
+						characters as <code>s</code>.
+	*/
+	private static String toJavaStringLiteral(CharSequence s, boolean plain) {
+		// Pass through null CharSequences
+		if (s == null) {
+			return null;
+		}
+
+		StringBuilder returnValue = new StringBuilder(s.length() + 2);
+		returnValue.append(DOUBLE_QUOTE);
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case BACKSLASH:
+				case DOUBLE_QUOTE:
+					returnValue.append(BACKSLASH);
+					returnValue.append(c);
+					break;
+				case NEW_LINE:
+					returnValue.append(BACKSLASH);
+					returnValue.append('n');
+					break;
+				case CARRIAGE_RETURN:
+					returnValue.append(BACKSLASH);
+					returnValue.append('r');
+					break;
+				default:
+					boolean copy;
+					if (plain) {
+						copy = c >= SPACE && c < FIRST_NON_ASCII;
+					} else {
+						copy =	c == SPACE ||
+								(
+									c < FIRST_NON_ASCII &&
+									Character.isLetterOrDigit(c)
+								);
+					}
+					if (copy) {
+						returnValue.append(c);
+					} else {
+						returnValue.append(String.format(UNICODE, (int)c));
+					}
+			}
+		}
+		returnValue.append(DOUBLE_QUOTE);
+
+		return returnValue.toString();
+	}
+
 	/** Provide a method akin to Perl's join() function. This takes a number of
 		{@link Object}s, interprets every one of them as a {@link String} and
 		joins them with the given separator {@link String}.
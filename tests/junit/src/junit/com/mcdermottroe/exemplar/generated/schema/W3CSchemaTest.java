@@ -29,6 +29,7 @@
 */
 package junit.com.mcdermottroe.exemplar.generated.schema;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -36,13 +37,26 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.xml.sax.SAXException;
 
 import com.mcdermottroe.exemplar.generated.schema.W3CSchema;
+import com.mcdermottroe.exemplar.generated.schema.element.Annotation;
+import com.mcdermottroe.exemplar.generated.schema.element.Appinfo;
+import com.mcdermottroe.exemplar.generated.schema.element.Documentation;
 import com.mcdermottroe.exemplar.generated.schema.support.W3CSchemaException;
 import com.mcdermottroe.exemplar.generated.schema.support.W3CSchemaTreeOp;
 import com.mcdermottroe.exemplar.generated.schema.support.XMLComponent;
+import com.mcdermottroe.exemplar.generated.schema.support.XMLContent;
 import com.mcdermottroe.exemplar.input.schema.TypeProcessor;
 
 import junit.com.mcdermottroe.exemplar.UtilityClassTestCase;
@@ -56,6 +70,12 @@ import junit.com.mcdermottroe.exemplar.input.schema.ParserTest;
 public class W3CSchemaTest
 extends UtilityClassTestCase<W3CSchema>
 {
+	/** The namespace declaration for the xs prefix used in the documents
+		which are read from strings.
+	*/
+	private static final String XS =
+		"xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"";
+
 	/** A collection of sample inputs to test from. */
 	private List<File> sampleInput;
 
@@ -96,6 +116,77 @@ extends UtilityClassTestCase<W3CSchema>
 		}
 	}
 
+	/** Test {@link W3CSchema#readAll(Iterable, Executor)}. */
+	public void testReadAll() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<XMLComponent<?>>> results = W3CSchema.readAll(
+				sampleInput,
+				executor
+			);
+			assertNotNull("readAll() returned null", results);
+			assertEquals(
+				"readAll() returned the wrong number of results",
+				sampleInput.size(),
+				results.size()
+			);
+			for (Future<XMLComponent<?>> result : results) {
+				assertTrue(
+					"readAll() returned before finishing",
+					result.isDone()
+				);
+				assertNotNull(
+					"readAll() read a null document",
+					result.get()
+				);
+			}
+		} catch (IOException e) {
+			assertNotNull("IOException was null", e);
+			fail("readAll() threw an IOException");
+		} catch (InterruptedException e) {
+			assertNotNull("InterruptedException was null", e);
+			fail("Interrupted while checking the results of readAll()");
+		} catch (ExecutionException e) {
+			assertNotNull("ExecutionException was null", e);
+			fail("readAll() failed to read a document");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** Test {@link W3CSchema#setMappingWindow(long)}. */
+	public void testSetMappingWindow() {
+		for (long bad : new long[] {-1L, 0L, Integer.MAX_VALUE + 1L}) {
+			try {
+				W3CSchema.setMappingWindow(bad);
+				fail("setMappingWindow(" + bad + ") was accepted");
+			} catch (IllegalArgumentException e) {
+				assertNotNull("IllegalArgumentException was null", e);
+			}
+		}
+
+		// Read the samples through a window smaller than most of them
+		W3CSchema.setMappingWindow(4096L);
+		try {
+			for (File sample : sampleInput) {
+				try {
+					assertNotNull(
+						"read(File) returned null",
+						W3CSchema.read(sample)
+					);
+				} catch (IOException e) {
+					assertNotNull("IOException was null", e);
+					fail("read(File) threw an IOException");
+				} catch (SAXException e) {
+					assertNotNull("SAXException was null", e);
+					fail("read(File) threw a SAXException");
+				}
+			}
+		} finally {
+			W3CSchema.setMappingWindow(64L * 1024 * 1024);
+		}
+	}
+
 	/** Test {@link W3CSchema#walk(XMLComponent, Collection)}. */
 	public void testWalk() {
 		if (readResults.isEmpty()) {
@@ -116,6 +207,438 @@ extends UtilityClassTestCase<W3CSchema>
 		}
 	}
 
+	/** Test {@link W3CSchema#parallelWalk(XMLComponent, Collection,
+		Executor)}.
+	*/
+	public void testParallelWalk() {
+		if (readResults.isEmpty()) {
+			testRead();
+		}
+
+		// Every node visited by walk() should be visited once by each of
+		// the operations given to parallelWalk().
+		final AtomicInteger expected = new AtomicInteger();
+		final AtomicInteger allConcurrent = new AtomicInteger();
+		final AtomicInteger contentConcurrent = new AtomicInteger();
+		final AtomicInteger contentExpected = new AtomicInteger();
+		final AtomicInteger sequential = new AtomicInteger();
+		final AtomicBoolean misdirected = new AtomicBoolean(false);
+		Collection<W3CSchemaTreeOp> countOps =
+			new ArrayList<W3CSchemaTreeOp>();
+		countOps.add(
+			new W3CSchemaTreeOp() {
+				public boolean shouldApply(XMLComponent<?> treeComponent) {
+					return true;
+				}
+
+				public void execute(XMLComponent<?> treeComponent) {
+					expected.incrementAndGet();
+					if (treeComponent instanceof XMLContent) {
+						contentExpected.incrementAndGet();
+					}
+				}
+			}
+		);
+		Collection<W3CSchemaTreeOp> treeOps =
+			new ArrayList<W3CSchemaTreeOp>();
+		treeOps.add(
+			new W3CSchemaTreeOp.Concurrent() {
+				public Class<?>[] appliesTo() {
+					return null;
+				}
+
+				public boolean shouldApply(XMLComponent<?> treeComponent) {
+					return true;
+				}
+
+				public void execute(XMLComponent<?> treeComponent) {
+					allConcurrent.incrementAndGet();
+				}
+			}
+		);
+		treeOps.add(
+			new W3CSchemaTreeOp.Concurrent() {
+				public Class<?>[] appliesTo() {
+					return new Class<?>[] {XMLContent.class};
+				}
+
+				public boolean shouldApply(XMLComponent<?> treeComponent) {
+					if (!(treeComponent instanceof XMLContent)) {
+						misdirected.set(true);
+					}
+					return true;
+				}
+
+				public void execute(XMLComponent<?> treeComponent) {
+					contentConcurrent.incrementAndGet();
+				}
+			}
+		);
+		treeOps.add(
+			new W3CSchemaTreeOp() {
+				public boolean shouldApply(XMLComponent<?> treeComponent) {
+					return true;
+				}
+
+				public void execute(XMLComponent<?> treeComponent) {
+					sequential.incrementAndGet();
+				}
+			}
+		);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (XMLComponent<?> schema : readResults) {
+				W3CSchema.parallelWalk(schema, null, executor);
+				W3CSchema.walk(schema, countOps);
+				W3CSchema.parallelWalk(schema, treeOps, executor);
+			}
+			assertEquals(
+				"Concurrent operation missed nodes",
+				expected.get(),
+				allConcurrent.get()
+			);
+			assertEquals(
+				"Concurrent operation missed nodes",
+				contentExpected.get(),
+				contentConcurrent.get()
+			);
+			assertEquals(
+				"Sequential operation missed nodes",
+				expected.get(),
+				sequential.get()
+			);
+			assertFalse(
+				"Operation asked about the wrong class of node",
+				misdirected.get()
+			);
+
+			// A failing operation should fail the walk
+			Collection<W3CSchemaTreeOp> failingOps =
+				new ArrayList<W3CSchemaTreeOp>();
+			failingOps.add(
+				new W3CSchemaTreeOp.Concurrent() {
+					public Class<?>[] appliesTo() {
+						return null;
+					}
+
+					public boolean shouldApply(XMLComponent<?> treeComponent) {
+						return true;
+					}
+
+					public void execute(XMLComponent<?> treeComponent)
+					throws W3CSchemaException
+					{
+						throw new W3CSchemaException("Failing on purpose");
+					}
+				}
+			);
+			for (XMLComponent<?> schema : readResults) {
+				try {
+					W3CSchema.parallelWalk(schema, failingOps, executor);
+					fail("parallelWalk() did not report a failure");
+				} catch (W3CSchemaException e) {
+					assertEquals(
+						"parallelWalk() reported the wrong failure",
+						"Failing on purpose",
+						e.getMessage()
+					);
+				}
+			}
+		} catch (W3CSchemaException e) {
+			assertNotNull("W3CSchemaException was null", e);
+			fail("parallelWalk() threw an exception");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** Test that {@link W3CSchema#parallelWalk(XMLComponent, Collection,
+		Executor)} waits for the tasks it has already submitted before
+		rethrowing a {@link RejectedExecutionException}.
+	*/
+	public void testParallelWalkRejected() {
+		// A tree wide enough to be split between several tasks
+		Annotation root = new Annotation();
+		for (int i = 0; i < 100; i++) {
+			Documentation child = new Documentation();
+			child.add(new Appinfo());
+			root.add(child);
+		}
+
+		final AtomicBoolean sequentialRan = new AtomicBoolean(false);
+		Collection<W3CSchemaTreeOp> treeOps =
+			new ArrayList<W3CSchemaTreeOp>();
+		treeOps.add(
+			new W3CSchemaTreeOp.Concurrent() {
+				public Class<?>[] appliesTo() {
+					return null;
+				}
+
+				public boolean shouldApply(XMLComponent<?> treeComponent) {
+					return true;
+				}
+
+				public void execute(XMLComponent<?> treeComponent) {
+					// Nothing to do
+				}
+			}
+		);
+		treeOps.add(
+			new W3CSchemaTreeOp() {
+				public boolean shouldApply(XMLComponent<?> treeComponent) {
+					return true;
+				}
+
+				public void execute(XMLComponent<?> treeComponent) {
+					sequentialRan.set(true);
+				}
+			}
+		);
+
+		// Accept the first task, but hold it back until a while after the
+		// second one has been rejected, so that it is still running when
+		// parallelWalk() finds out about the rejection.
+		ExecutorService pool = Executors.newFixedThreadPool(1);
+		RejectingExecutor executor = new RejectingExecutor(pool);
+
+		try {
+			W3CSchema.parallelWalk(root, treeOps, executor);
+			fail("parallelWalk() did not report a rejection");
+		} catch (RejectedExecutionException e) {
+			assertEquals(
+				"parallelWalk() reported the wrong failure",
+				"Rejecting on purpose",
+				e.getMessage()
+			);
+			assertTrue(
+				"parallelWalk() did not wait for an accepted task",
+				executor.getAccepted().isDone()
+			);
+			assertFalse(
+				"parallelWalk() went on after a rejection",
+				sequentialRan.get()
+			);
+		} catch (W3CSchemaException e) {
+			assertNotNull("W3CSchemaException was null", e);
+			fail("parallelWalk() threw an exception");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/** Test that {@link W3CSchema#walk(XMLComponent, Collection)} visits
+		nodes in document order and copes with very deep trees.
+	*/
+	public void testWalkOrderAndDepth() {
+		final List<XMLComponent<?>> visited =
+			new ArrayList<XMLComponent<?>>();
+		Collection<W3CSchemaTreeOp> treeOps = new ArrayList<W3CSchemaTreeOp>();
+		treeOps.add(
+			new W3CSchemaTreeOp() {
+				public boolean shouldApply(XMLComponent<?> treeComponent) {
+					return true;
+				}
+
+				public void execute(XMLComponent<?> treeComponent) {
+					visited.add(treeComponent);
+				}
+			}
+		);
+
+		// A small tree, to check the order
+		Annotation root = new Annotation();
+		Documentation first = new Documentation();
+		Appinfo firstChild = new Appinfo();
+		Documentation second = new Documentation();
+		first.add(firstChild);
+		root.add(first);
+		root.add(second);
+		List<XMLComponent<?>> expected = new ArrayList<XMLComponent<?>>();
+		expected.add(root);
+		expected.add(first);
+		expected.add(firstChild);
+		expected.add(second);
+		try {
+			W3CSchema.walk(root, treeOps);
+		} catch (W3CSchemaException e) {
+			assertNotNull("W3CSchemaException was null", e);
+			fail("walk() threw an exception");
+			return;
+		}
+		assertEquals(
+			"Nodes visited out of order",
+			expected.size(),
+			visited.size()
+		);
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(
+				"Nodes visited out of order",
+				expected.get(i),
+				visited.get(i)
+			);
+		}
+
+		// A tree far deeper than the call stack would allow
+		int depth = 100000;
+		XMLComponent<?> deepRoot = new Annotation();
+		XMLComponent<?> current = deepRoot;
+		for (int i = 1; i < depth; i++) {
+			Annotation child = new Annotation();
+			current.add(child);
+			current = child;
+		}
+		visited.clear();
+		try {
+			W3CSchema.walk(deepRoot, treeOps);
+		} catch (W3CSchemaException e) {
+			assertNotNull("W3CSchemaException was null", e);
+			fail("walk() threw an exception");
+			return;
+		}
+		assertEquals("Not every node was visited", depth, visited.size());
+		assertTrue("contains() failed", deepRoot.contains(Annotation.class));
+		assertFalse("contains() failed", deepRoot.contains(Appinfo.class));
+	}
+
+	/** Test that {@link W3CSchema#read(InputStream)} keeps runs of text
+		which are only whitespace, and that each of them is a single
+		{@link XMLContent}.
+	*/
+	public void testReadWhitespaceText() {
+		XMLComponent<?> annotation = readElement(
+			"<xs:annotation " + XS + ">\n\t<xs:appinfo/>\r\n \t" +
+			"</xs:annotation>"
+		);
+		assertNotNull("read() failed", annotation);
+		List<XMLComponent<?>> children = annotation.getChildren();
+		assertEquals("Wrong number of children", 3, children.size());
+		assertText("\n\t", children.get(0));
+		assertTrue("Not an Appinfo", children.get(1) instanceof Appinfo);
+		// The SAX parser turns line ends into a single line feed
+		assertText("\n \t", children.get(2));
+		for (int i = 0; i < children.size(); i += 2) {
+			assertTrue(
+				"isAllWhitespace() failed",
+				XMLContent.class.cast(children.get(i)).isAllWhitespace()
+			);
+		}
+	}
+
+	/** Test that {@link W3CSchema#read(InputStream)} keeps the text on
+		either side of a child element apart.
+	*/
+	public void testReadMixedText() {
+		XMLComponent<?> documentation = readElement(
+			"<xs:documentation " + XS + ">before<xs:appinfo>inside" +
+			"</xs:appinfo>after<?pi data?>last</xs:documentation>"
+		);
+		assertNotNull("read() failed", documentation);
+		List<XMLComponent<?>> children = documentation.getChildren();
+		assertEquals("Wrong number of children", 5, children.size());
+		assertText("before", children.get(0));
+		assertTrue("Not an Appinfo", children.get(1) instanceof Appinfo);
+		assertEquals(
+			"Wrong number of children",
+			1,
+			children.get(1).getChildCount()
+		);
+		assertText("inside", children.get(1).getChild(0));
+		assertText("after", children.get(2));
+		assertText("last", children.get(4));
+		assertFalse(
+			"isAllWhitespace() failed",
+			XMLContent.class.cast(children.get(0)).isAllWhitespace()
+		);
+	}
+
+	/** Test that {@link W3CSchema#read(InputStream)} gathers text which the
+		SAX parser hands over in many calls to characters() into a single
+		{@link XMLContent}. Entity and character references, and text longer
+		than the buffer of the SAX parser, each split the text up.
+	*/
+	public void testReadSplitText() {
+		StringBuilder xml = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			xml.append("a&amp;b&lt;&#32;");
+			expected.append("a&b< ");
+		}
+		XMLComponent<?> documentation = readElement(
+			"<xs:documentation " + XS + ">" + xml + "</xs:documentation>"
+		);
+		assertNotNull("read() failed", documentation);
+		assertEquals(
+			"Text was not gathered into one XMLContent",
+			1,
+			documentation.getChildCount()
+		);
+		assertText(expected.toString(), documentation.getChild(0));
+		assertFalse(
+			"isAllWhitespace() failed",
+			XMLContent.class.cast(documentation.getChild(0)).isAllWhitespace()
+		);
+
+		// Whitespace split up by character references
+		documentation = readElement(
+			"<xs:documentation " + XS + "> &#32;\t&#10;&#9; " +
+			"</xs:documentation>"
+		);
+		assertNotNull("read() failed", documentation);
+		assertEquals(
+			"Text was not gathered into one XMLContent",
+			1,
+			documentation.getChildCount()
+		);
+		assertText(" \u0020\t\n\t ", documentation.getChild(0));
+		assertTrue(
+			"isAllWhitespace() failed",
+			XMLContent.class.cast(documentation.getChild(0)).isAllWhitespace()
+		);
+	}
+
+	/** Read a document and return its root element.
+
+		@param	xml	The document to read.
+		@return		The root element of the document, or null if it could not
+					be read.
+	*/
+	private static XMLComponent<?> readElement(String xml) {
+		XMLComponent<?> document;
+		try {
+			document = W3CSchema.read(
+				new ByteArrayInputStream(xml.getBytes("UTF-8"))
+			);
+		} catch (IOException e) {
+			assertNotNull("IOException was null", e);
+			fail("read(InputStream) threw an IOException");
+			return null;
+		} catch (SAXException e) {
+			assertNotNull("SAXException was null", e);
+			fail("read(InputStream) threw a SAXException");
+			return null;
+		}
+		if (document == null || document.getChildCount() != 1) {
+			return null;
+		}
+		return document.getChild(0);
+	}
+
+	/** Check that a node of a tree is an {@link XMLContent} with the given
+		text.
+
+		@param	expected	The text which the node should have.
+		@param	node		The node to check.
+	*/
+	private static void assertText(String expected, XMLComponent<?> node) {
+		assertTrue("Not an XMLContent", node instanceof XMLContent);
+		assertEquals(
+			"Wrong text",
+			expected,
+			XMLContent.class.cast(node).getContent()
+		);
+	}
+
 	/** Test {@link W3CSchema#write(XMLComponent, OutputStream)}. */
 	public void testWrite() {
 		if (readResults.isEmpty()) {
@@ -145,4 +668,68 @@ extends UtilityClassTestCase<W3CSchema>
 			assertNotSame("write() wrote null", "", written);
 		}
 	}
+
+	/** An {@link Executor} which accepts the first task it is given and
+		rejects any others. The accepted task is held back until a while
+		after the first rejection.
+
+		@author	Conor McDermottroe
+		@since	0.2
+	*/
+	private static class RejectingExecutor
+	implements Executor
+	{
+		/** The pool on which the accepted task is run. */
+		private final ExecutorService pool;
+
+		/** Counted down when a task is rejected. */
+		private final CountDownLatch rejected;
+
+		/** The task which was accepted, if any. */
+		private Future<?> accepted;
+
+		/** Create a new {@link RejectingExecutor}.
+
+			@param	taskPool	The pool on which to run the accepted task.
+		*/
+		RejectingExecutor(ExecutorService taskPool) {
+			pool = taskPool;
+			rejected = new CountDownLatch(1);
+			accepted = null;
+		}
+
+		/** {@inheritDoc} */
+		public void execute(final Runnable command) {
+			if (accepted != null) {
+				rejected.countDown();
+				throw new RejectedExecutionException("Rejecting on purpose");
+			}
+			assertTrue(
+				"parallelWalk() did not submit a Future",
+				command instanceof Future
+			);
+			accepted = Future.class.cast(command);
+			pool.execute(
+				new Runnable() {
+					public void run() {
+						try {
+							rejected.await();
+							Thread.sleep(100);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						command.run();
+					}
+				}
+			);
+		}
+
+		/** Get the task which was accepted.
+
+			@return	The task which was accepted or null if none was.
+		*/
+		Future<?> getAccepted() {
+			return accepted;
+		}
+	}
 }
@@ -31,6 +31,7 @@ package junit.com.mcdermottroe.exemplar.generated.schema.support;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.List;
 
 import com.mcdermottroe.exemplar.generated.schema.support.XMLComponent;
 
@@ -84,6 +85,30 @@ extends NormalGeneratedClassTestCase<T>
 		}
 	}
 
+	/** Test {@link XMLComponent#getChildCount()} and {@link
+		XMLComponent#getChild(int)} against {@link
+		XMLComponent#getChildren()}.
+	*/
+	public void testGetChild() {
+		for (T a : samples()) {
+			if (a != null) {
+				List<XMLComponent<?>> children = a.getChildren();
+				assertEquals(
+					"getChildCount() disagrees with getChildren()",
+					children.size(),
+					a.getChildCount()
+				);
+				for (int i = 0; i < children.size(); i++) {
+					assertSame(
+						"getChild() disagrees with getChildren()",
+						children.get(i),
+						a.getChild(i)
+					);
+				}
+			}
+		}
+	}
+
 	/** Test that:
 		Integer.signum(a.compareTo(b)) == -Integer.signum(b.compareTo(a))
 		as required by the contract of {@link Comparable#compareTo(Object)}.
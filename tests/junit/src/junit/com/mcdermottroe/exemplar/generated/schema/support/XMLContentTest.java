@@ -50,6 +50,10 @@ extends XMLComponentTestCase<XMLContent>
 		addSample(new XMLContent(" "));
 		addSample(new XMLContent("\t"));
 		addSample(new XMLContent("\t "));
+		addSample(new XMLContent("\r\n"));
+		addSample(new XMLContent("\f\u000B"));
+		addSample(new XMLContent(" foo "));
+		addSample(new XMLContent("\u00A0"));
 	}
 
 	/** Test {@link XMLContent#getContent()}. */
@@ -114,4 +118,35 @@ extends XMLComponentTestCase<XMLContent>
 			}
 		}
 	}
+
+	/** Test {@link XMLContent#isAllWhitespace()} against a run of each of
+		the whitespace characters it accepts and some which it does not.
+	*/
+	public void testIsAllWhitespaceRuns() {
+		String[] runs = {
+			"",
+			" \t\n\u000B\f\r",
+			"\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n",
+			"\u00A0",
+			"\u2028",
+			"\n\t.",
+			".\n\t",
+		};
+		boolean[] expected = {
+			true,
+			true,
+			true,
+			false,
+			false,
+			false,
+			false,
+		};
+		for (int i = 0; i < runs.length; i++) {
+			assertEquals(
+				"isAllWhitespace() failed",
+				expected[i],
+				new XMLContent(runs[i]).isAllWhitespace()
+			);
+		}
+	}
 }
@@ -31,7 +31,9 @@ package junit.com.mcdermottroe.exemplar.generated.schema.support;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Map;
 
+import com.mcdermottroe.exemplar.generated.schema.support.exemplarAttribute;
 import com.mcdermottroe.exemplar.generated.schema.support.exemplarElement;
 
 /** Test class for {@link exemplarElement}.
@@ -211,4 +213,90 @@ extends XMLComponentTestCase<T>
 		}
 		return true;
 	}
+
+	/** Test {@link exemplarElement#attributes()}. */
+	public void testAttributes() {
+		for (T sample : samples()) {
+			if (sample != null) {
+				Map<String, exemplarAttribute> atts = sample.attributes();
+				assertNotNull("attributes() returned null", atts);
+				for (String name : atts.keySet()) {
+					assertEquals(
+						"Attribute filed under the wrong name",
+						name,
+						atts.get(name).getName()
+					);
+				}
+				int size = atts.size();
+				atts.clear();
+				assertEquals(
+					"Changing the map changed the element",
+					size,
+					sample.attributes().size()
+				);
+			}
+		}
+	}
+
+	/** Test {@link exemplarElement#newElement()}. */
+	public void testNewElement() {
+		for (T sample : samples()) {
+			if (sample != null) {
+				T element = sample.newElement();
+				assertNotNull("newElement() returned null", element);
+				assertNotSame("newElement() returned itself", sample, element);
+				assertEquals(
+					"newElement() made the wrong type of element",
+					sample.getClass(),
+					element.getClass()
+				);
+				assertEquals(
+					"newElement() made an element with the wrong name",
+					sample.name(),
+					element.name()
+				);
+			}
+		}
+	}
+
+	/** Test {@link exemplarElement#setAttribute(String, String)}. */
+	public void testSetAttribute() {
+		for (T sample : samples()) {
+			if (sample != null) {
+				assertFalse(
+					"Set an attribute which does not exist",
+					sample.setAttribute("no such attribute", "foo")
+				);
+				for (exemplarAttribute att : sample.attributes().values()) {
+					String name = att.getName();
+					if (att.getType() == exemplarAttribute.FIXED) {
+						String fixed = att.getDefaultValue();
+						assertTrue(
+							"Failed to give a FIXED attribute its value",
+							sample.setAttribute(name, fixed)
+						);
+						try {
+							sample.setAttribute(name, fixed + "foo");
+							fail("Changed the value of a FIXED attribute");
+						} catch (IllegalArgumentException e) {
+							assertNotNull(
+								"IllegalArgumentException was null",
+								e
+							);
+						}
+					} else {
+						assertTrue(
+							"Failed to set an attribute",
+							sample.setAttribute(name, "foo")
+						);
+						assertEquals(
+							"Value did not stick",
+							"foo",
+							sample.attributes().get(name).getValue()
+						);
+					}
+				}
+			}
+		}
+	}
 }
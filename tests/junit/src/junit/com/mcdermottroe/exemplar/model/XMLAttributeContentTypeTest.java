@@ -266,5 +266,30 @@ extends NormalClassTestCase<XMLAttributeContentType>
 		}
 	}
 
+	/** Test {@link XMLAttributeContentType#getType()}. */
+	public void testGetType() {
+		for (XMLAttributeContentType sample : samples()) {
+			if (sample != null) {
+				assertNotNull("sample.getType() == null", sample.getType());
+				if (!sample.getValues().isEmpty()) {
+					assertTrue(
+						"Enumerated type reported as " + sample.getType(),
+						sample.getType().equals(
+							XMLAttributeContentType.Type.ENUMERATION
+						) ||
+						sample.getType().equals(
+							XMLAttributeContentType.Type.NOTATION
+						)
+					);
+				}
+			}
+		}
+		assertEquals(
+			"CDATA().getType() != CDATA",
+			XMLAttributeContentType.Type.CDATA,
+			XMLAttributeContentType.CDATA().getType()
+		);
+	}
+
 	/** Test {@link XMLAttributeContentType.Type}. */
 }
@@ -0,0 +1,291 @@
+// vim:filetype=java:ts=4
+/*
+	Copyright (c) 2007
+	Conor McDermottroe.  All rights reserved.
+
+	Redistribution and use in source and binary forms, with or without
+	modification, are permitted provided that the following conditions
+	are met:
+	1. Redistributions of source code must retain the above copyright
+	   notice, this list of conditions and the following disclaimer.
+	2. Redistributions in binary form must reproduce the above copyright
+	   notice, this list of conditions and the following disclaimer in the
+	   documentation and/or other materials provided with the distribution.
+	3. Neither the name of the author nor the names of any contributors to
+	   the software may be used to endorse or promote products derived from
+	   this software without specific prior written permission.
+
+	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+	"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+	LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+	A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+	HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+	SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+	TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+	OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+	OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+	NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package junit.com.mcdermottroe.exemplar.output;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mcdermottroe.exemplar.model.XMLAlternative;
+import com.mcdermottroe.exemplar.model.XMLContent;
+import com.mcdermottroe.exemplar.model.XMLElement;
+import com.mcdermottroe.exemplar.model.XMLElementContentModel;
+import com.mcdermottroe.exemplar.model.XMLElementContentType;
+import com.mcdermottroe.exemplar.model.XMLElementReference;
+import com.mcdermottroe.exemplar.model.XMLMixedContent;
+import com.mcdermottroe.exemplar.model.XMLObject;
+import com.mcdermottroe.exemplar.model.XMLSequence;
+import com.mcdermottroe.exemplar.output.ContentModels;
+
+import static com.mcdermottroe.exemplar.Constants.INFINITY;
+
+import junit.com.mcdermottroe.exemplar.UtilityClassTestCase;
+
+/** Test class for {@link ContentModels}.
+
+	@author	Conor McDermottroe
+	@since	0.2
+*/
+public class ContentModelsTest
+extends UtilityClassTestCase<ContentModels>
+{
+	/** The names of the elements used in the tests, in id order. */
+	private static final List<String> ELEMENTS = Arrays.asList(
+		"a",
+		"b",
+		"c",
+		"x:d"
+	);
+
+	/** The id of element a. */
+	private static final int A = 0;
+
+	/** The id of element b. */
+	private static final int B = 1;
+
+	/** The id of element c. */
+	private static final int C = 2;
+
+	/** The id of element x:d. */
+	private static final int D = 3;
+
+	/** Test {@link ContentModels#compile(XMLElementContentModel, List)} with
+		an EMPTY content model.
+	*/
+	public void testCompileEmpty() {
+		int[][] table = ContentModels.compile(
+			new XMLElementContentModel(XMLElementContentType.EMPTY),
+			ELEMENTS
+		);
+		assertTrue("EMPTY rejected no children", accepts(table));
+		assertFalse("EMPTY accepted a child", accepts(table, A));
+	}
+
+	/** Test {@link ContentModels#compile(XMLElementContentModel, List)} with
+		an ANY content model.
+	*/
+	public void testCompileAny() {
+		int[][] table = ContentModels.compile(
+			new XMLElementContentModel(XMLElementContentType.ANY),
+			ELEMENTS
+		);
+		assertTrue("ANY rejected no children", accepts(table));
+		assertTrue("ANY rejected some children", accepts(table, D, A, A, C));
+	}
+
+	/** Test {@link ContentModels#compile(XMLElementContentModel, List)} with
+		a mixed content model.
+	*/
+	public void testCompileMixed() {
+		XMLMixedContent mixed = new XMLMixedContent();
+		mixed.addObject(new XMLContent());
+		mixed.addObject(new XMLElementReference("a"));
+		mixed.addObject(new XMLElementReference("b"));
+		int[][] table = ContentModels.compile(
+			new XMLElementContentModel(mixed),
+			ELEMENTS
+		);
+		assertTrue("(#PCDATA|a|b)* rejected no children", accepts(table));
+		assertTrue("(#PCDATA|a|b)* rejected b a b", accepts(table, B, A, B));
+		assertFalse("(#PCDATA|a|b)* accepted c", accepts(table, A, C));
+	}
+
+	/** Test {@link ContentModels#compile(XMLElementContentModel, List)} with
+		element content.
+	*/
+	public void testCompileChildren() {
+		// (a, (b | x:d)*, c?)
+		XMLAlternative choice = new XMLAlternative();
+		choice.addObject(particle("b", 1, 1));
+		choice.addObject(particle("x:d", 1, 1));
+		XMLSequence repeatedChoice = new XMLSequence();
+		repeatedChoice.addObject(choice);
+		repeatedChoice.setMinMaxOccurs(0, INFINITY);
+		XMLSequence content = new XMLSequence();
+		content.addObject(particle("a", 1, 1));
+		content.addObject(repeatedChoice);
+		content.addObject(particle("c", 0, 1));
+
+		int[][] table = ContentModels.compile(
+			new XMLElementContentModel(content),
+			ELEMENTS
+		);
+		assertTrue("Rejected a", accepts(table, A));
+		assertTrue("Rejected a b x:d b c", accepts(table, A, B, D, B, C));
+		assertFalse("Accepted no children", accepts(table));
+		assertFalse("Accepted b", accepts(table, B));
+		assertFalse("Accepted a c b", accepts(table, A, C, B));
+		assertFalse("Accepted a c c", accepts(table, A, C, C));
+	}
+
+	/** Test {@link ContentModels#compile(XMLElementContentModel, List)} with
+		a particle that has bounded repetition.
+	*/
+	public void testCompileBoundedRepetition() {
+		// (a{2,3}, b+)
+		XMLSequence content = new XMLSequence();
+		content.addObject(particle("a", 2, 3));
+		content.addObject(particle("b", 1, INFINITY));
+
+		int[][] table = ContentModels.compile(
+			new XMLElementContentModel(content),
+			ELEMENTS
+		);
+		assertFalse("Accepted a b", accepts(table, A, B));
+		assertTrue("Rejected a a b", accepts(table, A, A, B));
+		assertTrue("Rejected a a a b b", accepts(table, A, A, A, B, B));
+		assertFalse("Accepted a a a a b", accepts(table, A, A, A, A, B));
+		assertFalse("Accepted a a", accepts(table, A, A));
+	}
+
+	/** Test {@link ContentModels#children(Map, List)}. */
+	public void testChildren() {
+		Map<String, XMLElement> elements = sampleElements();
+		BitSet[] children = ContentModels.children(elements, ELEMENTS);
+		assertEquals("Wrong children for a", ids(B, C), children[A]);
+		assertEquals("Wrong children for b", ids(C), children[B]);
+		assertEquals("Wrong children for c", ids(), children[C]);
+		assertNull("Undeclared x:d had children", children[D]);
+
+		// Only c itself may contain anything once it is ANY.
+		elements.put(
+			"c",
+			new XMLElement(
+				"c",
+				new XMLElementContentModel(XMLElementContentType.ANY)
+			)
+		);
+		children = ContentModels.children(elements, ELEMENTS);
+		assertEquals("Wrong children for a", ids(B, C), children[A]);
+		assertEquals("Wrong children for b", ids(C), children[B]);
+		assertNull("c did not contain anything", children[C]);
+	}
+
+	/** Test {@link ContentModels#descendants(Map, List)}. */
+	public void testDescendants() {
+		Map<String, XMLElement> elements = sampleElements();
+		BitSet[] descendants = ContentModels.descendants(elements, ELEMENTS);
+		assertEquals("Wrong descendants for a", ids(B, C), descendants[A]);
+		assertEquals("Wrong descendants for b", ids(C), descendants[B]);
+		assertEquals("Wrong descendants for c", ids(), descendants[C]);
+		assertNull("Undeclared x:d had descendants", descendants[D]);
+
+		// Once c may contain anything, so may a and b.
+		elements.put(
+			"c",
+			new XMLElement(
+				"c",
+				new XMLElementContentModel(XMLElementContentType.ANY)
+			)
+		);
+		descendants = ContentModels.descendants(elements, ELEMENTS);
+		assertNull("a did not contain anything", descendants[A]);
+		assertNull("b did not contain anything", descendants[B]);
+		assertNull("c did not contain anything", descendants[C]);
+	}
+
+	/** Declare some of the elements used in the tests: a is (b, c?), b is
+		(#PCDATA | c)*, c is EMPTY and x:d is not declared.
+
+		@return	The declared elements, by name.
+	*/
+	private static Map<String, XMLElement> sampleElements() {
+		XMLSequence aContent = new XMLSequence();
+		aContent.addObject(particle("b", 1, 1));
+		aContent.addObject(particle("c", 0, 1));
+		XMLMixedContent bContent = new XMLMixedContent();
+		bContent.addObject(new XMLContent());
+		bContent.addObject(new XMLElementReference("c"));
+		Map<String, XMLElement> elements = new HashMap<String, XMLElement>();
+		elements.put(
+			"a",
+			new XMLElement("a", new XMLElementContentModel(aContent))
+		);
+		elements.put(
+			"b",
+			new XMLElement("b", new XMLElementContentModel(bContent))
+		);
+		elements.put(
+			"c",
+			new XMLElement(
+				"c",
+				new XMLElementContentModel(XMLElementContentType.EMPTY)
+			)
+		);
+		return elements;
+	}
+
+	/** Make a set of element ids.
+
+		@param	ids	The element ids.
+		@return		A {@link BitSet} with the bits for the ids set.
+	*/
+	private static BitSet ids(int... ids) {
+		BitSet set = new BitSet();
+		for (int id : ids) {
+			set.set(id);
+		}
+		return set;
+	}
+
+	/** Make a particle which refers to one element.
+
+		@param	name	The name of the element.
+		@param	min		The minimum number of occurrences.
+		@param	max		The maximum number of occurrences.
+		@return			The particle.
+	*/
+	private static XMLObject<?> particle(String name, int min, int max) {
+		XMLSequence particle = new XMLSequence();
+		particle.addObject(new XMLElementReference(name));
+		particle.setMinMaxOccurs(min, max);
+		return particle;
+	}
+
+	/** Run an automaton made by {@link ContentModels#compile(
+		XMLElementContentModel, List)} over a list of children.
+
+		@param	table		The transition table of the automaton.
+		@param	children	The ids of the children.
+		@return				True if the automaton accepts the children.
+	*/
+	private static boolean accepts(int[][] table, int... children) {
+		int state = 0;
+		for (int child : children) {
+			state = table[state][child];
+			if (state < 0) {
+				return false;
+			}
+		}
+		return table[state][ELEMENTS.size()] == 1;
+	}
+}
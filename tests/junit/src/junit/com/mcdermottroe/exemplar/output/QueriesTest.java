@@ -0,0 +1,315 @@
+// vim:filetype=java:ts=4
+/*
+	Copyright (c) 2007
+	Conor McDermottroe.  All rights reserved.
+
+	Redistribution and use in source and binary forms, with or without
+	modification, are permitted provided that the following conditions
+	are met:
+	1. Redistributions of source code must retain the above copyright
+	   notice, this list of conditions and the following disclaimer.
+	2. Redistributions in binary form must reproduce the above copyright
+	   notice, this list of conditions and the following disclaimer in the
+	   documentation and/or other materials provided with the distribution.
+	3. Neither the name of the author nor the names of any contributors to
+	   the software may be used to endorse or promote products derived from
+	   this software without specific prior written permission.
+
+	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+	"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+	LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+	A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+	HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+	SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+	TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+	OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+	OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+	NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package junit.com.mcdermottroe.exemplar.output;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import com.mcdermottroe.exemplar.model.XMLAttribute;
+import com.mcdermottroe.exemplar.model.XMLAttributeContentType;
+import com.mcdermottroe.exemplar.model.XMLAttributeDefaultType;
+import com.mcdermottroe.exemplar.model.XMLAttributeList;
+import com.mcdermottroe.exemplar.model.XMLContent;
+import com.mcdermottroe.exemplar.model.XMLDocumentType;
+import com.mcdermottroe.exemplar.model.XMLElement;
+import com.mcdermottroe.exemplar.model.XMLElementContentModel;
+import com.mcdermottroe.exemplar.model.XMLElementContentType;
+import com.mcdermottroe.exemplar.model.XMLElementReference;
+import com.mcdermottroe.exemplar.model.XMLMixedContent;
+import com.mcdermottroe.exemplar.model.XMLNamedObject;
+import com.mcdermottroe.exemplar.model.XMLObject;
+import com.mcdermottroe.exemplar.model.XMLSequence;
+import com.mcdermottroe.exemplar.output.Queries;
+
+import static com.mcdermottroe.exemplar.Constants.INFINITY;
+
+import junit.com.mcdermottroe.exemplar.UtilityClassTestCase;
+
+/** Test class for {@link Queries}.
+
+	@author	Conor McDermottroe
+	@since	0.2
+*/
+public class QueriesTest
+extends UtilityClassTestCase<Queries>
+{
+	/** The names of the elements in {@link #DOCTYPE}, in id order. */
+	private static final List<String> ELEMENTS = Arrays.asList(
+		"book",
+		"chapter",
+		"em",
+		"note",
+		"para",
+		"title"
+	);
+
+	/** A small DTD for books. */
+	private static final XMLDocumentType DOCTYPE = bookDoctype();
+
+	/** Test {@link Queries#parse(String)}. */
+	public void testParse() {
+		List<List<Queries.Step>> queries;
+		try {
+			queries = Queries.parse(
+				" /book/chapter[@kind = \"intro\"][ @id ]/title | //* "
+			);
+		} catch (ParseException e) {
+			fail("Queries.parse threw a ParseException");
+			return;
+		}
+		assertEquals("Wrong number of queries", 2, queries.size());
+
+		List<Queries.Step> first = queries.get(0);
+		assertEquals("Wrong number of steps", 3, first.size());
+		assertFalse("/book was a descendant step", first.get(0).isDescendant());
+		assertEquals("Wrong name", "book", first.get(0).getName());
+		assertEquals(
+			"Wrong attribute tests",
+			Arrays.asList("kind", "intro", "id", null),
+			first.get(1).getPredicates()
+		);
+		assertEquals(
+			"Wrong step",
+			"/chapter[@kind='intro'][@id]",
+			first.get(1).toString()
+		);
+
+		List<Queries.Step> second = queries.get(1);
+		assertEquals("Wrong number of steps", 1, second.size());
+		assertTrue(
+			"//* was not a descendant step",
+			second.get(0).isDescendant()
+		);
+		assertNull("* had a name", second.get(0).getName());
+		assertEquals("Wrong step", "//*", second.get(0).toString());
+	}
+
+	/** Test {@link Queries#parse(String)} negatively. */
+	public void testParseNegative() {
+		String[] malformed = {
+			"",
+			"book",
+			"/",
+			"/book/",
+			"/book |",
+			"/book[title]",
+			"/book[@id",
+			"/book[@id=1]",
+			"/book[@id='1]",
+			"/book/title text()",
+		};
+		for (String query : malformed) {
+			try {
+				Queries.parse(query);
+				fail("Malformed query not detected: " + query);
+			} catch (ParseException e) {
+				assertNotNull("ParseException was null", e);
+			}
+		}
+	}
+
+	/** Test {@link Queries#isPossible(List, XMLDocumentType, List)}. */
+	public void testIsPossible() {
+		String[] possible = {
+			"/book/chapter/title",
+			"/book//em",
+			"//chapter[@kind='body']/para",
+			"//chapter[@version='1'][@id]",
+			"/foo",
+			"//foo",
+			"/note/foo",
+			"//note//*/title",
+		};
+		String[] impossible = {
+			"/book/title/para",
+			"/book/em",
+			"/book/foo",
+			"//chapter[@kind='outro']",
+			"//chapter[@version='2']",
+			"//chapter[@name]",
+			"//title[@id]",
+			"//em/*",
+		};
+		for (String query : possible) {
+			assertTrue(
+				"Impossible: " + query,
+				Queries.isPossible(parseOne(query), DOCTYPE, ELEMENTS)
+			);
+		}
+		for (String query : impossible) {
+			assertFalse(
+				"Possible: " + query,
+				Queries.isPossible(parseOne(query), DOCTYPE, ELEMENTS)
+			);
+		}
+	}
+
+	/** Test {@link Queries#containers(Queries.Step, XMLDocumentType, List)}.
+	*/
+	public void testContainers() {
+		assertEquals(
+			"Wrong containers for /title",
+			ids(0, 1, 3),
+			Queries.containers(parseOne("/title").get(0), DOCTYPE, ELEMENTS)
+		);
+		assertEquals(
+			"Wrong containers for //em",
+			ids(0, 1, 3, 4),
+			Queries.containers(parseOne("//em").get(0), DOCTYPE, ELEMENTS)
+		);
+		assertEquals(
+			"Wrong containers for /chapter[@kind='body']",
+			ids(0, 3),
+			Queries.containers(
+				parseOne("/chapter[@kind='body']").get(0),
+				DOCTYPE,
+				ELEMENTS
+			)
+		);
+		assertEquals(
+			"Wrong containers for /*[@kind='outro']",
+			ids(3),
+			Queries.containers(
+				parseOne("/*[@kind='outro']").get(0),
+				DOCTYPE,
+				ELEMENTS
+			)
+		);
+	}
+
+	/** Parse a single query which is known to be well formed.
+
+		@param	query	The query.
+		@return			The steps of the query.
+	*/
+	private static List<Queries.Step> parseOne(String query) {
+		try {
+			return Queries.parse(query).get(0);
+		} catch (ParseException e) {
+			fail("Queries.parse threw a ParseException for " + query);
+			return null;
+		}
+	}
+
+	/** Make the DTD used in the tests. A book is (title, chapter+), a
+		chapter is (title, para*) and has attributes kind (intro|body), id
+		and version, which is fixed at 1, a para is (#PCDATA | em)*, title
+		and em are text and a note may contain anything.
+
+		@return	The DTD.
+	*/
+	private static XMLDocumentType bookDoctype() {
+		XMLSequence book = new XMLSequence();
+		book.addObject(particle("title", 1, 1));
+		book.addObject(particle("chapter", 1, INFINITY));
+		XMLSequence chapter = new XMLSequence();
+		chapter.addObject(particle("title", 1, 1));
+		chapter.addObject(particle("para", 0, INFINITY));
+		XMLMixedContent para = new XMLMixedContent();
+		para.addObject(new XMLContent());
+		para.addObject(new XMLElementReference("em"));
+		XMLMixedContent text = new XMLMixedContent();
+		text.addObject(new XMLContent());
+
+		List<XMLAttribute> chapterAttributes = new ArrayList<XMLAttribute>();
+		chapterAttributes.add(
+			new XMLAttribute(
+				"kind",
+				XMLAttributeContentType.ENUMERATION(
+					Arrays.asList("intro", "body")
+				),
+				XMLAttributeDefaultType.IMPLIED()
+			)
+		);
+		chapterAttributes.add(
+			new XMLAttribute(
+				"id",
+				XMLAttributeContentType.ID(),
+				XMLAttributeDefaultType.IMPLIED()
+			)
+		);
+		chapterAttributes.add(
+			new XMLAttribute(
+				"version",
+				XMLAttributeContentType.CDATA(),
+				XMLAttributeDefaultType.FIXED("1")
+			)
+		);
+
+		Collection<XMLNamedObject<?>> markup =
+			new ArrayList<XMLNamedObject<?>>();
+		markup.add(new XMLElement("book", new XMLElementContentModel(book)));
+		markup.add(
+			new XMLElement("chapter", new XMLElementContentModel(chapter))
+		);
+		markup.add(new XMLElement("em", new XMLElementContentModel(text)));
+		markup.add(
+			new XMLElement(
+				"note",
+				new XMLElementContentModel(XMLElementContentType.ANY)
+			)
+		);
+		markup.add(new XMLElement("para", new XMLElementContentModel(para)));
+		markup.add(new XMLElement("title", new XMLElementContentModel(text)));
+		markup.add(new XMLAttributeList("chapter", chapterAttributes));
+		return new XMLDocumentType(markup);
+	}
+
+	/** Make a set of element ids.
+
+		@param	ids	The element ids.
+		@return		A {@link BitSet} with the bits for the ids set.
+	*/
+	private static BitSet ids(int... ids) {
+		BitSet set = new BitSet();
+		for (int id : ids) {
+			set.set(id);
+		}
+		return set;
+	}
+
+	/** Make a particle which refers to one element.
+
+		@param	name	The name of the element.
+		@param	min		The minimum number of occurrences.
+		@param	max		The maximum number of occurrences.
+		@return			The particle.
+	*/
+	private static XMLObject<?> particle(String name, int min, int max) {
+		XMLSequence particle = new XMLSequence();
+		particle.addObject(new XMLElementReference(name));
+		particle.setMinMaxOccurs(min, max);
+		return particle;
+	}
+}
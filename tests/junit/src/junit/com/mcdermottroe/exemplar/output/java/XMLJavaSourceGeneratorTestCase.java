@@ -32,10 +32,13 @@ package junit.com.mcdermottroe.exemplar.output.java;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
+import com.mcdermottroe.exemplar.input.InputUtils;
 import com.mcdermottroe.exemplar.model.XMLDocumentType;
 import com.mcdermottroe.exemplar.output.java.XMLJavaSourceGenerator;
 import com.mcdermottroe.exemplar.ui.Options;
+import com.mcdermottroe.exemplar.utils.Files;
 
 import static com.mcdermottroe.exemplar.Constants.Format.Filenames.JAVA_PARSER;
 import static com.mcdermottroe.exemplar.Constants.Format.Filenames.JFLEX;
@@ -43,6 +46,9 @@ import static com.mcdermottroe.exemplar.Constants.Output.Java.ENTITIES_FILE;
 
 import junit.com.mcdermottroe.exemplar.output.XMLParserSourceGeneratorTestCase;
 
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
 /** Test class for children of {@link XMLJavaSourceGenerator}.
 
 	@param	<T>	The type of {@link XMLJavaSourceGenerator} to test.
@@ -64,9 +70,109 @@ extends XMLParserSourceGeneratorTestCase<T>
 		Collection<File> retVal = new ArrayList<File>();
 		retVal.add(new File(outputDir, String.format(JAVA_PARSER, vocabulary)));
 		retVal.add(new File(outputDir, String.format(JFLEX, vocabulary)));
-		if (Options.isSet("include", "entities")) {
+		if	(
+				Options.isSet("include", "entities") &&
+				!Options.isSet("include", "compiled-entities")
+			)
+		{
 			retVal.add(new File(outputDir, ENTITIES_FILE));
 		}
 		return retVal;
 	}
+
+	/** Test that the parser generated for a large DTD compiles. The tables
+		which the parsers generated for DocBook carry are big enough to go
+		over the limits of the class file format if they are not packed.
+
+		@throws	Exception	if the parser could not be generated.
+	*/
+	public void testCompileLargeParser()
+	throws Exception
+	{
+		assertCompilesDocBook();
+	}
+
+	/** Test that the validating parser generated for a large DTD compiles.
+		The content models of DocBook are big enough to go over the limit on
+		the length of a string constant if they are not split up.
+
+		@throws	Exception	if the parser could not be generated.
+	*/
+	public void testCompileLargeValidatingParser()
+	throws Exception
+	{
+		Options.set("include", "validation");
+		assertCompilesDocBook();
+	}
+
+	/** Generate a parser for DocBook 4.4 with each of the samples and check
+		that it compiles.
+
+		@throws	Exception	if the DTD could not be parsed or the parser could
+							not be generated.
+	*/
+	private void assertCompilesDocBook()
+	throws Exception
+	{
+		// The default vocabulary of XML would make classes which clash with
+		// the ones in the SAX and StAX APIs.
+		Options.set("vocabulary", "docbook");
+		XMLDocumentType docType = InputUtils.parse(
+			"dtds/docbook-xml-44/docbookx.dtd",
+			"dtd"
+		);
+		for (T sample : samples()) {
+			if (sample != null) {
+				// The samples all generate the same parser, so compiling
+				// one of them is enough.
+				assertCompiles(sample, docType);
+				break;
+			}
+		}
+	}
+
+	/** Generate a parser, run JFlex on it and compile the result, failing
+		if any of those steps fail.
+
+		@param	generator	The {@link XMLJavaSourceGenerator} to generate the
+							parser with.
+		@param	docType		The {@link XMLDocumentType} to generate the parser
+							for.
+		@throws	Exception	if the parser could not be generated.
+	*/
+	protected void assertCompiles(T generator, XMLDocumentType docType)
+	throws Exception
+	{
+		File outputDir = Files.tempDir(getClass().getName());
+		assertNotNull("Failed to create output directory", outputDir);
+		generator.generateParser(docType, outputDir);
+
+		JFlex.Options.setDefaults();
+		JFlex.Options.verbose = false;
+		JFlex.Options.progress = false;
+		for (File f : Files.findFiles(outputDir)) {
+			if (f.getName().endsWith(".jflex")) {
+				JFlex.Main.generate(f);
+			}
+		}
+
+		List<String> args = new ArrayList<String>();
+		args.add("-nowarn");
+		args.add("-d");
+		args.add(outputDir.getAbsolutePath());
+		for (File f : Files.findFiles(outputDir)) {
+			if (f.getName().endsWith(".java")) {
+				args.add(f.getAbsolutePath());
+			}
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull("No Java compiler available", compiler);
+		assertEquals(
+			"The generated parser failed to compile",
+			0,
+			compiler.run(null, null, null, args.toArray(new String[0]))
+		);
+
+		Files.removeTree(outputDir);
+	}
 }
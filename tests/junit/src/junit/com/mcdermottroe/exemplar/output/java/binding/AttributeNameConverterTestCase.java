@@ -81,9 +81,17 @@ extends NormalClassTestCase<T>
 	public void testGetGetterName() {
 		XMLAttribute[] attributes = {
 			null,
+			attribute("title"),
+			attribute("class"),
+			attribute("parent"),
+			attribute("childCount"),
 		};
 		String[] expected = {
 			null,
+			"getTitle",
+			"getClassAttribute",
+			"getParentAttribute",
+			"getChildCountAttribute",
 		};
 		for (T sample : samples()) {
 			if (sample != null) {
@@ -110,9 +118,17 @@ extends NormalClassTestCase<T>
 	public void testGetSetterName() {
 		XMLAttribute[] attributes = {
 			null,
+			attribute("title"),
+			attribute("class"),
+			attribute("parent"),
+			attribute("childCount"),
 		};
 		String[] expected = {
 			null,
+			"setTitle",
+			"setClassAttribute",
+			"setParentAttribute",
+			"setChildCountAttribute",
 		};
 		for (T sample : samples()) {
 			if (sample != null) {
@@ -192,6 +208,19 @@ extends NormalClassTestCase<T>
 		assertFalse("Bad AttributeNameConverter fell through", fellThrough);
 	}
 
+	/** Make a CDATA attribute with no default.
+
+		@param	name	The name of the attribute.
+		@return			An {@link XMLAttribute} with the given name.
+	*/
+	private static XMLAttribute attribute(String name) {
+		return new XMLAttribute(
+			name,
+			XMLAttributeContentType.CDATA(),
+			XMLAttributeDefaultType.IMPLIED()
+		);
+	}
+
 	/** A bad implementation of an {@link AttributeNameConverter} which returns
 		illegal results for {@link
 		AttributeNameConverter#generateVariableName(XMLAttribute)}, {@link
@@ -108,6 +108,9 @@ extends XMLParserSourceGeneratorTestCase<Generator>
 				fail("Failed to generate class name.");
 			}
 		}
+		retVal.add(
+			new File(elementDir, String.format(JAVA, "exemplarElements"))
+		);
 		retVal.add(supportDir);
 		retVal.add(
 			new File(supportDir, String.format(JAVA, "ProcessingInstruction"))
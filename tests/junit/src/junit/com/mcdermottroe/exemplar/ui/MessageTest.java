@@ -403,6 +403,20 @@ extends UtilityClassTestCase<Message>
 		assertNotSame("Message was a zero-length String", 0,  message.length());
 	}
 
+	/** Test {@link Message#QUERY_IMPOSSIBLE(String)}. */
+	public void testQUERY_IMPOSSIBLE() {
+		String message = Message.QUERY_IMPOSSIBLE("foo");
+		assertNotNull("Message was null", message);
+		assertNotSame("Message was a zero-length String", 0,  message.length());
+	}
+
+	/** Test {@link Message#QUERY_SYNTAX_ERROR(String)}. */
+	public void testQUERY_SYNTAX_ERROR() {
+		String message = Message.QUERY_SYNTAX_ERROR("foo");
+		assertNotNull("Message was null", message);
+		assertNotSame("Message was a zero-length String", 0,  message.length());
+	}
+
 	/** Test {@link Message#SCHEMA_ATTRIBUTE_ILLEGAL_CONTENT(String)}. */
 	public void testSCHEMA_ATTRIBUTE_ILLEGAL_CONTENT() {
 		String message = Message.SCHEMA_ATTRIBUTE_ILLEGAL_CONTENT("foo");
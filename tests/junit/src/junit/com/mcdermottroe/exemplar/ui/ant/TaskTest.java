@@ -373,6 +373,20 @@ extends NormalClassTestCase<Task>
 		);
 	}
 
+	/** Test {@link Task#setQuery(String)}. */
+	public void testSetQuery() {
+		Task.setQuery("//foo");
+		assertNotNull(
+			"Options.getString(\"query\") == null",
+			Options.getString("query")
+		);
+		assertEquals(
+			"Options.getString(\"query\") != \"//foo\"",
+			"//foo",
+			Options.getString("query")
+		);
+	}
+
 	/** Test {@link Task#setVerbose(String)}. */
 	public void testSetVerboseTrue() {
 		Task.setVerbose("true");
@@ -127,6 +127,71 @@ extends UtilityClassTestCase<Strings>
 		}
 	}
 
+	/** Test {@link Strings#toJavaStringLiteral(CharSequence)}. */
+	public void testToJavaStringLiteral() {
+		String[] input = {
+			null,
+			"",
+			"foo bar",
+			"a\"b\\c",
+			"line\r\n",
+			"{&}\u00e9",
+		};
+		String[] expected = {
+			null,
+			"\"\"",
+			"\"foo bar\"",
+			"\"a\\\"b\\\\c\"",
+			"\"line\\r\\n\"",
+			"\"\\u007B\\u0026\\u007D\\u00E9\"",
+		};
+
+		for (int i = 0; i < input.length; i++) {
+			assertEquals(
+				Strings.join("", "Strings.toJavaStringLiteral(", input[i], ")"),
+				expected[i],
+				Strings.toJavaStringLiteral(input[i])
+			);
+		}
+	}
+
+	/** Test {@link Strings#toPlainJavaStringLiteral(CharSequence)}. */
+	public void testToPlainJavaStringLiteral() {
+		String[] input = {
+			null,
+			"",
+			"foo bar",
+			"a\"b\\c",
+			"line\r\n",
+			"{&}\u00e9",
+			"http://www.w3.org/2001/XMLSchema",
+			"tab\t",
+		};
+		String[] expected = {
+			null,
+			"\"\"",
+			"\"foo bar\"",
+			"\"a\\\"b\\\\c\"",
+			"\"line\\r\\n\"",
+			"\"{&}\\u00E9\"",
+			"\"http://www.w3.org/2001/XMLSchema\"",
+			"\"tab\\u0009\"",
+		};
+
+		for (int i = 0; i < input.length; i++) {
+			assertEquals(
+				Strings.join(
+					"",
+					"Strings.toPlainJavaStringLiteral(",
+					input[i],
+					")"
+				),
+				expected[i],
+				Strings.toPlainJavaStringLiteral(input[i])
+			);
+		}
+	}
+
 	/** Test {@link Strings#trimTrailingSpace(CharSequence)}. */
 	public void testTrimTrailingSpace() {
 		String[] input = {